@@ -0,0 +1,54 @@
+package com.demo.donutpriorityqueue.benchmark;
+
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.repository.OrderRepository;
+import com.demo.donutpriorityqueue.util.Constant;
+
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Stand-in for the order repository serving a fixed list of orders from memory, so benchmarks measure the
+ * queue and not the database. Only the finders used on the read paths are answered.
+ */
+final class InMemoryOrderRepository {
+    private static final Comparator<OrderSummary> QUEUE_ORDER = Comparator
+            .comparing((OrderSummary order) -> order.getCustomerId() >= Constant.PREMIUM_CUSTOMER_ID_LIMIT)
+            .thenComparing(OrderSummary::getTimestamp)
+            .thenComparing(OrderSummary::getCustomerId);
+
+    private InMemoryOrderRepository() {
+    }
+
+    /**
+     * Create a repository holding the given orders
+     * @param orders orders in any order
+     * @return repository answering the read finders from the list
+     */
+    static OrderRepository of(List<Order> orders) {
+        return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+                new Class<?>[] {OrderRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> List.copyOf(orders);
+                    case "count" -> (long) orders.size();
+                    case "findByCustomerId" -> orders.stream()
+                            .filter(order -> order.getCustomerId().equals(args[0]))
+                            .findFirst()
+                            .orElse(null);
+                    case "findByCustomerIdLessThan" -> orders.stream()
+                            .filter(order -> order.getCustomerId() < (short) args[0])
+                            .toList();
+                    case "findByTimestampLessThan" -> orders.stream()
+                            .filter(order -> order.getTimestamp() < (long) args[0])
+                            .toList();
+                    case "streamAllSummariesInQueueOrder" -> orders.stream()
+                            .map(OrderSummary.class::cast)
+                            .sorted(QUEUE_ORDER);
+                    case "toString" -> "InMemoryOrderRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,96 @@
+package com.demo.donutpriorityqueue.benchmark;
+
+import com.demo.donutpriorityqueue.DonutPriorityQueueApplication;
+import com.demo.donutpriorityqueue.dto.BulkOrderResponse;
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import com.demo.donutpriorityqueue.entity.OrderIdGenerator;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.repository.OrderRepository;
+import com.demo.donutpriorityqueue.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Inserts per second for single and bulk order creation against the configured database.
+ * An allocation size of 1 takes every id from the sequence, which is how ids were generated before.
+ * With write-behind an order is acknowledged once it is in the journal, the database writes are not measured.
+ * Point it at a scratch database, the orders table is emptied before every invocation:
+ * mvn -P benchmark test-compile exec:exec -Djmh.args="OrderInsertBenchmark -jvmArgsAppend -Dspring.datasource.url=..."
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OrderInsertBenchmark {
+    private static final int ORDERS_PER_INVOCATION = 1000;
+
+    @Param({"1", "50"})
+    private int allocationSize;
+    @Param({"1", "50"})
+    private int batchSize;
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+    private OrderQueue orderQueue;
+    private List<CreateOrderRequest> createOrderRequests;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        Path journal = Files.createTempDirectory("donut-journal").resolve("order.journal");
+        context = new SpringApplicationBuilder(DonutPriorityQueueApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties." + OrderIdGenerator.ALLOCATION_SIZE_SETTING + "=" + allocationSize,
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "spring.jpa.properties.hibernate.id.sequence.increment_size_mismatch_strategy=none",
+                        "donut.store.write-behind=" + writeBehind,
+                        "donut.store.journal=" + journal)
+                .run();
+        orderService = context.getBean(OrderService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderQueue = context.getBean(OrderQueue.class);
+        createOrderRequests = IntStream.rangeClosed(1, ORDERS_PER_INVOCATION)
+                .mapToObj(i -> new CreateOrderRequest((short) i, (short) (i % 50 + 1)))
+                .toList();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearOrders() {
+        // flushes the journal of the last invocation in write-behind mode
+        orderQueue.rebuild();
+        orderRepository.deleteAllInBatch();
+        orderQueue.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_INVOCATION)
+    public void createOrder() {
+        createOrderRequests.forEach(orderService::createOrder);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_INVOCATION)
+    public BulkOrderResponse createOrders() {
+        return orderService.createOrders(createOrderRequests);
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.donutpriorityqueue.benchmark;
+
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.mapper.OrderMapper;
+import com.demo.donutpriorityqueue.mapper.OrderMapperImpl;
+import com.demo.donutpriorityqueue.metrics.OrderMetrics;
+import com.demo.donutpriorityqueue.queue.FifoCartPacker;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.queue.StrictPriorityPolicy;
+import com.demo.donutpriorityqueue.service.OrderServiceImpl;
+import com.demo.donutpriorityqueue.store.JpaOrderStore;
+import com.demo.donutpriorityqueue.store.OrderStore;
+import com.demo.donutpriorityqueue.util.Constant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one status poll against a full queue, without a database. Run with the gc profiler to see the
+ * bytes allocated per poll, viewOrder should only allocate the response:
+ * mvn -P benchmark test-compile exec:exec -Djmh.args="OrderStatusBenchmark -prof gc"
+ * and read gc.alloc.rate.norm. mapOrder is the previous path through the mapper for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OrderStatusBenchmark {
+    private OrderServiceImpl orderService;
+    private OrderQueue orderQueue;
+    private OrderMapper orderMapper;
+    private Short[] customerIds;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup(Level.Trial)
+    public void fillQueue() {
+        // the orders are only offered to the queue, nothing is read from the store
+        OrderStore orderStore = new JpaOrderStore();
+        ReflectionTestUtils.setField(orderStore, "orderRepository", InMemoryOrderRepository.of(List.of()));
+        orderQueue = new OrderQueue(orderStore, new StrictPriorityPolicy(), new FifoCartPacker());
+        orderMapper = new OrderMapperImpl();
+        ReflectionTestUtils.setField(orderMapper, "orderQueue", orderQueue);
+        // a poll records its wait time, as in the application
+        OrderMetrics orderMetrics = new OrderMetrics();
+        ReflectionTestUtils.setField(orderMetrics, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(orderMetrics, "orderQueue", orderQueue);
+        orderMetrics.register();
+        orderService = new OrderServiceImpl();
+        ReflectionTestUtils.setField(orderService, "orderQueue", orderQueue);
+        ReflectionTestUtils.setField(orderService, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(orderService, "orderMetrics", orderMetrics);
+
+        // the path variable of a request is boxed before it reaches the service
+        customerIds = new Short[Constant.MAX_CUSTOMER_ID];
+        for (int i = 0; i < customerIds.length; i ++) {
+            customerIds[i] = (short) (i + 1);
+            orderQueue.offer(new Order(customerIds[i], (short) (i % Constant.CART_CAPACITY + 1)));
+        }
+    }
+
+    @Benchmark
+    public OrderResponse viewOrder(Cursor cursor) {
+        return orderService.viewOrder(nextCustomerId(cursor));
+    }
+
+    @Benchmark
+    public OrderResponse mapOrder(Cursor cursor) {
+        OrderSummary order = orderQueue.get(nextCustomerId(cursor));
+        return orderMapper.orderToOrderResponse(order);
+    }
+
+    private Short nextCustomerId(Cursor cursor) {
+        cursor.next = cursor.next + 1 == customerIds.length ? 0 : cursor.next + 1;
+        return customerIds[cursor.next];
+    }
+}
@@ -0,0 +1,175 @@
+package com.demo.donutpriorityqueue.benchmark;
+
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.dto.UpcomingDeliveryDto;
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.mapper.OrderMapper;
+import com.demo.donutpriorityqueue.mapper.OrderMapperImpl;
+import com.demo.donutpriorityqueue.queue.AgingPolicy;
+import com.demo.donutpriorityqueue.queue.FifoCartPacker;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.queue.SchedulingPolicy;
+import com.demo.donutpriorityqueue.queue.StrictPriorityPolicy;
+import com.demo.donutpriorityqueue.queue.WeightedFairSharePolicy;
+import com.demo.donutpriorityqueue.repository.OrderRepository;
+import com.demo.donutpriorityqueue.service.OrderServiceImpl;
+import com.demo.donutpriorityqueue.store.JpaOrderStore;
+import com.demo.donutpriorityqueue.store.OrderStore;
+import com.demo.donutpriorityqueue.util.Constant;
+import com.demo.donutpriorityqueue.util.OrderQueueUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How the read paths scale with the length of the queue, against an in-memory repository.
+ * Reports throughput and latency percentiles, add the gc profiler for the allocation rate:
+ * mvn -P benchmark test-compile exec:exec -Djmh.args="QueueReadBenchmark -prof gc"
+ * There are only 999 premium customer ids, so the premium ratio is capped for the largest queues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueueReadBenchmark {
+    public enum QuantityDistribution {
+        UNIFORM(1, Constant.CART_CAPACITY), // any quantity
+        SMALL(1, 10), // many orders per cart
+        LARGE(30, Constant.CART_CAPACITY); // one order per cart
+
+        private final int min;
+        private final int max;
+
+        QuantityDistribution(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        short next(Random random) {
+            return (short) (min + random.nextInt(max - min + 1));
+        }
+    }
+
+    @Param({"100", "1000", "20000"})
+    private int queueSize;
+    @Param({"0.1", "0.5"})
+    private double premiumRatio;
+    @Param({"UNIFORM", "SMALL", "LARGE"})
+    private QuantityDistribution quantityDistribution;
+    @Param({"strict", "aging", "weighted"})
+    private String policy;
+
+    private OrderQueue orderQueue;
+    private OrderQueueUtil orderQueueUtil;
+    private OrderMapper orderMapper;
+    private OrderServiceImpl orderService;
+    private List<Order> orders;
+    private Order lastOrder;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup(Level.Trial)
+    public void fillQueue() {
+        orders = generateOrders(new Random(42));
+        lastOrder = orders.get(orders.size() - 1);
+        OrderRepository orderRepository = InMemoryOrderRepository.of(orders);
+        // not proxied, the in-memory repository needs no transaction
+        OrderStore orderStore = new JpaOrderStore();
+        ReflectionTestUtils.setField(orderStore, "orderRepository", orderRepository);
+
+        orderQueue = new OrderQueue(orderStore, schedulingPolicy(), new FifoCartPacker());
+        orderQueue.rebuild();
+
+        orderQueueUtil = new OrderQueueUtil();
+        ReflectionTestUtils.setField(orderQueueUtil, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderQueueUtil, "orderQueue", orderQueue);
+        orderMapper = new OrderMapperImpl();
+        ReflectionTestUtils.setField(orderMapper, "orderQueue", orderQueue);
+        orderService = new OrderServiceImpl();
+        ReflectionTestUtils.setField(orderService, "orderStore", orderStore);
+        ReflectionTestUtils.setField(orderService, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(orderService, "orderQueue", orderQueue);
+    }
+
+    private SchedulingPolicy schedulingPolicy() {
+        return switch (policy) {
+            case "aging" -> new AgingPolicy(Duration.ofMinutes(10));
+            case "weighted" -> new WeightedFairSharePolicy(3, 1);
+            default -> new StrictPriorityPolicy();
+        };
+    }
+
+    @Benchmark
+    public List<OrderSummary> getOrderQueue() {
+        return orderQueueUtil.getOrderQueue();
+    }
+
+    @Benchmark
+    public int computeWaitTime() {
+        return orderQueueUtil.computeWaitTime(orders, lastOrder);
+    }
+
+    @Benchmark
+    public OrderResponse getQueuingStatus(Cursor cursor) {
+        return orderMapper.getQueuingStatus(nextOrder(cursor));
+    }
+
+    @Benchmark
+    public UpcomingDeliveryDto viewNextDelivery() {
+        return orderService.viewNextDelivery();
+    }
+
+    /**
+     * Every call follows a change to the queue, so the snapshot behind the next delivery is taken again
+     */
+    @Benchmark
+    public UpcomingDeliveryDto viewNextDeliveryAfterChange(Cursor cursor) {
+        Order order = nextOrder(cursor);
+        orderQueue.cancel(order.getCustomerId());
+        orderQueue.offer(order);
+        return orderService.viewNextDelivery();
+    }
+
+    private Order nextOrder(Cursor cursor) {
+        cursor.next = cursor.next + 1 == orders.size() ? 0 : cursor.next + 1;
+        return orders.get(cursor.next);
+    }
+
+    private List<Order> generateOrders(Random random) {
+        int premiumOrders = Math.min((int) (queueSize * premiumRatio), Constant.PREMIUM_CUSTOMER_ID_LIMIT - 1);
+        List<Short> premiumIds = customerIds(Constant.MIN_CUSTOMER_ID, Constant.PREMIUM_CUSTOMER_ID_LIMIT - 1, random);
+        List<Short> regularIds = customerIds(Constant.PREMIUM_CUSTOMER_ID_LIMIT, Constant.MAX_CUSTOMER_ID, random);
+
+        List<Order> generatedOrders = new ArrayList<>(queueSize);
+        for (int i = 0; i < queueSize; i ++) {
+            short customerId = i < premiumOrders ? premiumIds.get(i) : regularIds.get(i - premiumOrders);
+            Order order = new Order(customerId, quantityDistribution.next(random));
+            // a few orders per second
+            ReflectionTestUtils.setField(order, "timestamp", (long) random.nextInt(Math.max(queueSize / 4, 1)));
+            generatedOrders.add(order);
+        }
+        Collections.shuffle(generatedOrders, random);
+        return generatedOrders;
+    }
+
+    private static List<Short> customerIds(int from, int to, Random random) {
+        List<Short> customerIds = new ArrayList<>(to - from + 1);
+        for (int customerId = from; customerId <= to; customerId ++) {
+            customerIds.add((short) customerId);
+        }
+        Collections.shuffle(customerIds, random);
+        return customerIds;
+    }
+}
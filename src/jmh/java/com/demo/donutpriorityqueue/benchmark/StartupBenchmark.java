@@ -0,0 +1,75 @@
+package com.demo.donutpriorityqueue.benchmark;
+
+import com.demo.donutpriorityqueue.DonutPriorityQueueApplication;
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import com.demo.donutpriorityqueue.dto.OrderQueueDto;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cold start of the application up to the first page of the queue, every measurement runs in a new JVM.
+ * The warmup fork queues the orders, every fork leaves a copy of the queue on close which the next fork restores
+ * or, without restoreQueue, deletes so the queue is rebuilt from the database.
+ * Point it at a scratch database:
+ * mvn -P benchmark test-compile exec:exec -Djmh.args="StartupBenchmark -jvmArgsAppend -Dspring.datasource.url=..."
+ * Append -Dspring.aot.enabled=true after building with the aot profile, or -XX:SharedArchiveFile=... after a
+ * training run, to measure ahead-of-time processing and class data sharing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, warmups = 1)
+public class StartupBenchmark {
+    private static final int QUEUED_ORDERS = 10000;
+    private static final String QUEUE_SNAPSHOT = "target/startup-benchmark/queue.snapshot";
+
+    @Param({"default", "prod"})
+    private String profile;
+    @Param({"true", "false"})
+    private boolean restoreQueue;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Iteration)
+    public void dropQueueCopy() throws IOException {
+        if (!restoreQueue) {
+            Files.deleteIfExists(Path.of(QUEUE_SNAPSHOT));
+        }
+    }
+
+    @Benchmark
+    public OrderQueueDto startAndViewQueue() {
+        context = new SpringApplicationBuilder(DonutPriorityQueueApplication.class)
+                .profiles(profile)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "donut.queue.snapshot=" + QUEUE_SNAPSHOT)
+                .run();
+        return context.getBean(OrderService.class).viewQueue(PageRequest.of(0, 50));
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopApplication() {
+        if (context.getBean(OrderQueue.class).size() < QUEUED_ORDERS) {
+            context.getBean(OrderService.class).createOrders(IntStream.rangeClosed(1, QUEUED_ORDERS)
+                    .mapToObj(i -> new CreateOrderRequest((short) i, (short) (i % 50 + 1)))
+                    .toList());
+        }
+        // the queue is copied on close for the next fork
+        context.close();
+    }
+}
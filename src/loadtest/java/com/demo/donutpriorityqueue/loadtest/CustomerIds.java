@@ -0,0 +1,66 @@
+package com.demo.donutpriorityqueue.loadtest;
+
+import com.demo.donutpriorityqueue.util.Constant;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * What the load test believes the state of every customer id is, so creates go to customers without an order and
+ * views and cancels to customers with one. A customer with a request in flight is busy and is not picked.
+ */
+class CustomerIds {
+    static final short NONE = 0;
+    static final int FREE = 0;
+    static final int QUEUED = 1;
+    static final int BUSY = 2;
+    private static final int ATTEMPTS = 64;
+
+    private final AtomicIntegerArray states = new AtomicIntegerArray(Constant.MAX_CUSTOMER_ID + 1);
+
+    /**
+     * Pick a random customer in a state and mark it busy
+     * @param state state of the customer
+     * @return customer id, {@link #NONE} if no customer in that state was found
+     */
+    short claim(int state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < ATTEMPTS; attempt ++) {
+            int customerId = random.nextInt(Constant.MIN_CUSTOMER_ID, Constant.MAX_CUSTOMER_ID + 1);
+            if (states.compareAndSet(customerId, state, BUSY)) {
+                return (short) customerId;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Pick a random customer in a state without claiming it
+     * @param state state of the customer
+     * @return customer id, {@link #NONE} if no customer in that state was found
+     */
+    short find(int state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < ATTEMPTS; attempt ++) {
+            int customerId = random.nextInt(Constant.MIN_CUSTOMER_ID, Constant.MAX_CUSTOMER_ID + 1);
+            if (states.get(customerId) == state) {
+                return (short) customerId;
+            }
+        }
+        return NONE;
+    }
+
+    void set(short customerId, int state) {
+        states.set(customerId, state);
+    }
+
+    int count(int state) {
+        int count = 0;
+        for (int customerId = Constant.MIN_CUSTOMER_ID; customerId <= Constant.MAX_CUSTOMER_ID; customerId ++) {
+            if (states.get(customerId) == state) {
+                count ++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo.donutpriorityqueue.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies in microseconds and response status counts of one endpoint
+ */
+class EndpointStats {
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    private final ConcurrentHistogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * Record a response
+     * @param latencyNanos time from when the request was due until the response
+     * @param status status code of the response, -1 if the request failed
+     */
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void skip() {
+        skipped.increment();
+    }
+
+    void reset() {
+        latencies.reset();
+        statuses.clear();
+        skipped.reset();
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+
+    String statuses() {
+        Map<String, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(String.valueOf(status), count.sum()));
+        if (skipped.sum() > 0) {
+            counts.put("skipped", skipped.sum());
+        }
+        return counts.toString();
+    }
+
+    /**
+     * Write the percentile distribution in milliseconds, the format plotted by the HdrHistogram tools
+     * @param out stream to write to
+     */
+    void writePercentiles(PrintStream out) {
+        latencies.outputPercentileDistribution(out, 1000.0);
+    }
+}
@@ -0,0 +1,335 @@
+package com.demo.donutpriorityqueue.loadtest;
+
+import com.demo.donutpriorityqueue.DonutPriorityQueueApplication;
+import com.demo.donutpriorityqueue.util.Constant;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the REST API. Boots the application against an in-memory H2 database, queues the prefill orders
+ * with the bulk endpoint and then drives every endpoint at a fixed rate, open loop, so a slow response does not
+ * hold back the next request. Latencies are measured from the time a request was due and recorded in an
+ * HdrHistogram per endpoint.
+ * Besides the fixed rate workload, a number of pollers can each poll the status of a queued order, wait for the
+ * response and poll again after an interval, like customers refreshing their position.
+ * Arguments are key=value pairs:
+ * duration and warmup in seconds, prefill number of queued orders, output directory of the histograms,
+ * create.rate, view.rate, cancel.rate, queue.rate, next_delivery.rate in requests per second, pollers number of
+ * pollers, poll.interval in milliseconds, mode the donut.execution.mode of the application and store one of jpa,
+ * write-behind or embedded. The journal and the snapshot of the store are kept in a new temporary directory.
+ */
+public class LoadTest {
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("duration", "60"),
+            Map.entry("warmup", "10"),
+            Map.entry("prefill", String.valueOf(Constant.MAX_CUSTOMER_ID)),
+            Map.entry("output", "target/loadtest"),
+            Map.entry("create.rate", "200"),
+            Map.entry("view.rate", "500"),
+            Map.entry("cancel.rate", "200"),
+            Map.entry("queue.rate", "100"),
+            Map.entry("next_delivery.rate", "100"),
+            Map.entry("pollers", "0"),
+            Map.entry("poll.interval", "1000"),
+            Map.entry("mode", "platform"),
+            Map.entry("store", "jpa"));
+    private static final String BASE_ORDER_URL = "/api/order";
+    private static final int BULK_SIZE = 1000;
+    private static final int QUEUE_PAGE_SIZE = 50;
+
+    private final Map<String, String> settings;
+    private final String baseUrl;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CustomerIds customerIds = new CustomerIds();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final EndpointStats pollStats = new EndpointStats();
+    private volatile boolean polling;
+
+    LoadTest(Map<String, String> settings, int port) {
+        this.settings = settings;
+        this.baseUrl = "http://localhost:" + port + BASE_ORDER_URL;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2 || !DEFAULTS.containsKey(keyValue[0])) {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", expected one of " + DEFAULTS.keySet());
+            }
+            settings.put(keyValue[0], keyValue[1]);
+        }
+
+        String store = settings.get("store");
+        if (!List.of("jpa", "write-behind", "embedded").contains(store)) {
+            throw new IllegalArgumentException("Unknown store " + store + ", expected jpa, write-behind or embedded");
+        }
+        Path storeDirectory = Files.createTempDirectory("donut-store");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DonutPriorityQueueApplication.class)
+                .profiles(store.equals("embedded") ? new String[] {"embedded"} : new String[0])
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        // timestamp is a keyword in H2
+                        "spring.datasource.url=jdbc:h2:mem:donut_order;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+                                "NON_KEYWORDS=TIMESTAMP;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.sql.init.platform=h2",
+                        "spring.jpa.show-sql=false",
+                        "donut.execution.mode=" + settings.get("mode"),
+                        "donut.store.write-behind=" + store.equals("write-behind"),
+                        "donut.store.journal=" + storeDirectory.resolve("order.journal"),
+                        "donut.store.snapshot=" + storeDirectory.resolve("order.snapshot"),
+                        // the in-memory database starts empty and has no version sequence, so no copy of the queue
+                        "donut.queue.snapshot=")
+                .run();
+        try {
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            new LoadTest(settings, port).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    void run() throws Exception {
+        prefill(Integer.parseInt(settings.get("prefill")));
+
+        List<Workload> workloads = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            double rate = Double.parseDouble(settings.get(operation.key + ".rate"));
+            if (rate > 0) {
+                workloads.add(new Workload(operation, rate));
+            }
+        }
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Math.max(workloads.size(), 1));
+        long start = System.nanoTime();
+        workloads.forEach(workload -> workload.schedule(scheduler, start));
+        int pollers = Integer.parseInt(settings.get("pollers"));
+        long pollInterval = Long.parseLong(settings.get("poll.interval"));
+        polling = true;
+        for (int poller = 0; poller < pollers; poller ++) {
+            // spread the first polls over one interval
+            Executor delay = CompletableFuture.delayedExecutor(
+                    ThreadLocalRandom.current().nextLong(pollInterval + 1), TimeUnit.MILLISECONDS);
+            delay.execute(() -> poll(pollInterval));
+        }
+
+        TimeUnit.SECONDS.sleep(Long.parseLong(settings.get("warmup")));
+        workloads.forEach(Workload::reset);
+        pollStats.reset();
+        long measurementStart = System.nanoTime();
+        TimeUnit.SECONDS.sleep(Long.parseLong(settings.get("duration")));
+        scheduler.shutdownNow();
+        polling = false;
+        double seconds = (System.nanoTime() - measurementStart) / 1e9;
+        awaitInFlight();
+
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        workloads.forEach(workload -> stats.put(workload.operation.key, workload.stats));
+        if (pollers > 0) {
+            stats.put("poll", pollStats);
+        }
+        report(stats, seconds);
+    }
+
+    /**
+     * Poll the status of a queued order and poll again an interval after the response, until polling stops
+     * @param interval time between a response and the next poll in milliseconds
+     */
+    private void poll(long interval) {
+        if (!polling) {
+            return;
+        }
+        Executor delay = CompletableFuture.delayedExecutor(interval, TimeUnit.MILLISECONDS);
+        short customerId = customerIds.find(CustomerIds.QUEUED);
+        if (customerId == CustomerIds.NONE) {
+            pollStats.skip();
+            delay.execute(() -> poll(interval));
+            return;
+        }
+
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(get("/" + customerId), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    pollStats.record(System.nanoTime() - start, error == null ? response.statusCode() : -1);
+                    inFlight.decrementAndGet();
+                    delay.execute(() -> poll(interval));
+                });
+    }
+
+    private void prefill(int orders) throws IOException, InterruptedException {
+        for (int from = Constant.MIN_CUSTOMER_ID; from <= orders; from += BULK_SIZE) {
+            List<Map<String, Object>> createOrderRequests = new ArrayList<>();
+            for (int customerId = from; customerId < from + BULK_SIZE && customerId <= orders; customerId ++) {
+                createOrderRequests.add(Map.of("customerId", customerId, "quantity", quantity()));
+            }
+            HttpResponse<String> response = httpClient.send(post("/bulk",
+                    objectMapper.writeValueAsString(createOrderRequests)), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Prefill failed with status " + response.statusCode());
+            }
+            for (JsonNode orderResult : objectMapper.readTree(response.body()).get("orderResults")) {
+                if ("CREATED".equals(orderResult.get("statusCode").asText())) {
+                    customerIds.set((short) orderResult.get("customerId").asInt(), CustomerIds.QUEUED);
+                }
+            }
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private void report(Map<String, EndpointStats> endpoints, double seconds) throws IOException {
+        Path output = Path.of(settings.get("output"));
+        Files.createDirectories(output);
+
+        System.out.printf("%n%-14s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "count", "rate/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        for (Map.Entry<String, EndpointStats> endpoint : endpoints.entrySet()) {
+            EndpointStats stats = endpoint.getValue();
+            System.out.printf("%-14s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    endpoint.getKey(), stats.count(), stats.count() / seconds,
+                    stats.percentileMillis(50), stats.percentileMillis(90), stats.percentileMillis(99),
+                    stats.percentileMillis(99.9), stats.maxMillis(), stats.statuses());
+            try (PrintStream out = new PrintStream(Files.newOutputStream(output.resolve(endpoint.getKey() + ".hgrm")))) {
+                stats.writePercentiles(out);
+            }
+        }
+        System.out.printf("%nHistograms written to %s%n", output.toAbsolutePath());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest delete(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).DELETE().build();
+    }
+
+    private static int quantity() {
+        return ThreadLocalRandom.current().nextInt(1, Constant.CART_CAPACITY + 1);
+    }
+
+    private enum Operation {
+        CREATE("create"),
+        VIEW("view"),
+        CANCEL("cancel"),
+        QUEUE("queue"),
+        NEXT_DELIVERY("next_delivery");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * One endpoint driven at a fixed rate
+     */
+    private final class Workload {
+        private final Operation operation;
+        private final long periodNanos;
+        private final AtomicLong ticks = new AtomicLong();
+        private final EndpointStats stats = new EndpointStats();
+
+        private Workload(Operation operation, double rate) {
+            this.operation = operation;
+            this.periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        }
+
+        private void schedule(ScheduledExecutorService scheduler, long start) {
+            scheduler.scheduleAtFixedRate(() -> send(start + ticks.getAndIncrement() * periodNanos),
+                    0, periodNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void reset() {
+            stats.reset();
+        }
+
+        private void send(long dueNanos) {
+            short customerId;
+            HttpRequest request;
+            switch (operation) {
+                case CREATE -> {
+                    customerId = customerIds.claim(CustomerIds.FREE);
+                    request = customerId == CustomerIds.NONE ? null : post("", String.format(
+                            "{\"customerId\":%d,\"quantity\":%d}", customerId, quantity()));
+                }
+                case CANCEL -> {
+                    customerId = customerIds.claim(CustomerIds.QUEUED);
+                    request = customerId == CustomerIds.NONE ? null : delete("/" + customerId);
+                }
+                case VIEW -> {
+                    customerId = customerIds.find(CustomerIds.QUEUED);
+                    request = customerId == CustomerIds.NONE ? null : get("/" + customerId);
+                }
+                case QUEUE -> {
+                    customerId = CustomerIds.NONE;
+                    int pages = Math.max(customerIds.count(CustomerIds.QUEUED) / QUEUE_PAGE_SIZE, 1);
+                    request = get(String.format("/queue?page=%d&size=%d",
+                            ThreadLocalRandom.current().nextInt(pages), QUEUE_PAGE_SIZE));
+                }
+                default -> {
+                    customerId = CustomerIds.NONE;
+                    request = get("/next_delivery");
+                }
+            }
+            if (request == null) {
+                stats.skip(); // no customer in the required state
+                return;
+            }
+
+            inFlight.incrementAndGet();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                stats.record(System.nanoTime() - dueNanos, error == null ? response.statusCode() : -1);
+                if (customerId != CustomerIds.NONE && operation != Operation.VIEW) {
+                    boolean queued = operation == Operation.CREATE ?
+                            error == null && response.statusCode() == 201 :
+                            error != null || response.statusCode() / 100 != 2 && response.statusCode() != 404;
+                    customerIds.set(customerId, queued ? CustomerIds.QUEUED : CustomerIds.FREE);
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+    }
+}
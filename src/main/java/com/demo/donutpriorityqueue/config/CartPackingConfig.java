@@ -0,0 +1,49 @@
+package com.demo.donutpriorityqueue.config;
+
+import com.demo.donutpriorityqueue.queue.CartPacker;
+import com.demo.donutpriorityqueue.queue.FifoCartPacker;
+import com.demo.donutpriorityqueue.queue.KnapsackCartPacker;
+import com.demo.donutpriorityqueue.queue.LookAheadCartPacker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Packing of the next cart, selected with donut.cart.packing: fifo (the default), look-ahead or knapsack
+ */
+@Configuration
+public class CartPackingConfig {
+
+    /**
+     * Orders are taken in queue order until the first one which does not fit
+     * @return the packer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "donut.cart.packing", havingValue = "fifo", matchIfMissing = true)
+    public CartPacker fifoCartPacker() {
+        return new FifoCartPacker();
+    }
+
+    /**
+     * Orders which do not fit are skipped for later ones within the window
+     * @param window number of orders at the head of the queue to choose from
+     * @return the packer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "donut.cart.packing", havingValue = "look-ahead")
+    public CartPacker lookAheadCartPacker(@Value("${donut.cart.window:64}") int window) {
+        return new LookAheadCartPacker(window);
+    }
+
+    /**
+     * The fullest cart is chosen from the orders within the window, always with the order at the head
+     * @param window number of orders at the head of the queue to choose from
+     * @return the packer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "donut.cart.packing", havingValue = "knapsack")
+    public CartPacker knapsackCartPacker(@Value("${donut.cart.window:64}") int window) {
+        return new KnapsackCartPacker(window);
+    }
+}
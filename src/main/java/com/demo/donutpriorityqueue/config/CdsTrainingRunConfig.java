@@ -0,0 +1,27 @@
+package com.demo.donutpriorityqueue.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Training run for a class data sharing archive, enabled with donut.startup.exit-on-ready=true. The application
+ * exits as soon as it is ready, so a JVM started with -XX:ArchiveClassesAtExit archives the classes loaded during
+ * startup and the next start with -XX:SharedArchiveFile maps them instead of loading and verifying them again.
+ */
+@Configuration
+@ConditionalOnProperty(name = "donut.startup.exit-on-ready", havingValue = "true")
+public class CdsTrainingRunConfig {
+
+    /**
+     * Close the application and exit the JVM once the application is ready
+     * @return the listener of the ready event
+     */
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> exitOnReady() {
+        return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.demo.donutpriorityqueue.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Data source handing out at most as many connections as the pool behind it holds. A thread needs a permit to get
+ * a connection and gives it back when the connection is closed, threads without a permit wait in a fair queue.
+ * With thousands of virtual threads the waiting happens on the semaphore, which parks a virtual thread cheaply,
+ * instead of inside the pool, and a request fails after a bounded wait rather than the connection timeout of the
+ * pool.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final Duration connectionWait;
+
+    /**
+     * @param dataSource pooled data source
+     * @param maxConnections number of connections of the pool
+     * @param connectionWait how long a thread waits for a permit
+     */
+    public ConnectionLimitingDataSource(DataSource dataSource, int maxConnections, Duration connectionWait) {
+        super(dataSource);
+        this.permits = new Semaphore(maxConnections, true);
+        this.connectionWait = connectionWait;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of connections which can be handed out right now
+     * @return free permits
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(connectionWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(String.format(
+                        "No database connection available within %d ms", connectionWait.toMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    // the permit is given back on the first close of the connection
+    private Connection limited(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (closed.compareAndSet(false, true)) {
+                                try {
+                                    connection.close();
+                                } finally {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+}
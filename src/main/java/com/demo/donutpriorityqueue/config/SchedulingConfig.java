@@ -0,0 +1,54 @@
+package com.demo.donutpriorityqueue.config;
+
+import com.demo.donutpriorityqueue.queue.AgingPolicy;
+import com.demo.donutpriorityqueue.queue.SchedulingPolicy;
+import com.demo.donutpriorityqueue.queue.StrictPriorityPolicy;
+import com.demo.donutpriorityqueue.queue.WeightedFairSharePolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Scheduling policy of the order queue, selected with donut.queue.policy: strict (the default), aging or weighted
+ */
+@Configuration
+public class SchedulingConfig {
+
+    /**
+     * Premium orders are always served first
+     * @return the policy
+     */
+    @Bean
+    @ConditionalOnProperty(name = "donut.queue.policy", havingValue = "strict", matchIfMissing = true)
+    public SchedulingPolicy strictPriorityPolicy() {
+        return new StrictPriorityPolicy();
+    }
+
+    /**
+     * Regular orders are promoted to the premium tier after waiting for a while
+     * @param promoteAfter how long a regular order waits before it is promoted
+     * @return the policy
+     */
+    @Bean
+    @ConditionalOnProperty(name = "donut.queue.policy", havingValue = "aging")
+    public SchedulingPolicy agingPolicy(@Value("${donut.queue.aging.promote-after:10m}") Duration promoteAfter) {
+        return new AgingPolicy(promoteAfter);
+    }
+
+    /**
+     * The tiers share the cart capacity by weight
+     * @param premiumWeight weight of the premium tier
+     * @param regularWeight weight of the regular tier
+     * @return the policy
+     */
+    @Bean
+    @ConditionalOnProperty(name = "donut.queue.policy", havingValue = "weighted")
+    public SchedulingPolicy weightedFairSharePolicy(
+            @Value("${donut.queue.weighted.premium-weight:3}") int premiumWeight,
+            @Value("${donut.queue.weighted.regular-weight:1}") int regularWeight) {
+        return new WeightedFairSharePolicy(premiumWeight, regularWeight);
+    }
+}
@@ -0,0 +1,72 @@
+package com.demo.donutpriorityqueue.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual thread execution mode, enabled with donut.execution.mode=virtual. Tomcat runs every request on a new
+ * virtual thread instead of its bounded platform thread pool, so a storm of status polls, which are answered
+ * from memory, no longer waits for a free request thread. The database is protected by a
+ * {@link ConnectionLimitingDataSource} with one permit per pooled connection.
+ * Virtual threads need JDK 21, the executor is looked up at runtime so the project still builds on JDK 17.
+ */
+@Configuration
+@ConditionalOnProperty(name = "donut.execution.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    /**
+     * Executor starting a new virtual thread per task
+     * @return the executor
+     * @throws IllegalStateException exception when the JDK has no virtual threads
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() throws IllegalStateException {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(String.format(
+                    "donut.execution.mode=virtual needs JDK 21 or later, running on %s",
+                    Runtime.version()), e);
+        }
+    }
+
+    /**
+     * Run the requests of Tomcat on virtual threads
+     * @param virtualThreadExecutor executor starting a virtual thread per request
+     * @return the customizer of the Tomcat protocol handler
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Limit the threads using the database to the size of the connection pool
+     * @param connectionWait how long a thread waits for a connection before the request fails
+     * @return post processor wrapping the data source
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${donut.execution.connection-wait:5s}") Duration connectionWait) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    return new ConnectionLimitingDataSource(dataSource, dataSource.getMaximumPoolSize(),
+                            connectionWait);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,25 +1,43 @@
 package com.demo.donutpriorityqueue.controller;
 
 import com.demo.donutpriorityqueue.service.OrderService;
+import com.demo.donutpriorityqueue.service.OrderUpdateService;
+import com.demo.donutpriorityqueue.dto.BulkOrderResponse;
 import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
 import com.demo.donutpriorityqueue.dto.OrderQueueDto;
 import com.demo.donutpriorityqueue.dto.OrderResponse;
 import com.demo.donutpriorityqueue.dto.UpcomingDeliveryDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 
 import static com.demo.donutpriorityqueue.controller.OrderController.BASE_ORDER_URL;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping(BASE_ORDER_URL)
 public class OrderController {
     static final String BASE_ORDER_URL = "/api/order";
 
     @Autowired
     private OrderService orderService;
+    @Autowired
+    private OrderUpdateService orderUpdateService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     /**
      * Route the POST request to create order
@@ -32,6 +50,17 @@ public class OrderController {
         return orderService.createOrder(createOrderRequest);
     }
 
+    /**
+     * Route the POST request at endpoint "bulk" to create a batch of orders
+     * @param createOrderRequests the dto for creating every order
+     * @return the result of every order
+     */
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.OK)
+    public BulkOrderResponse createOrders(@RequestBody List<CreateOrderRequest> createOrderRequests) {
+        return orderService.createOrders(createOrderRequests);
+    }
+
     /**
      * Route the DELETE request to cancel order
      * @param customerId id of a customer
@@ -54,23 +83,75 @@ public class OrderController {
     }
 
     /**
-     * Route the GET request at endpoint "queue" to view the order queue
+     * Route the GET request at endpoint "updates" to subscribe to the status of an order, a status event is sent
+     * whenever the position or the wait time changes and a removed event once the order left the queue
+     * @param customerId id of a customer
+     * @return the emitter of the server-sent events
+     */
+    @GetMapping(value = "/{customerId}/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeOrder(@PathVariable Short customerId) {
+        return orderUpdateService.subscribe(customerId);
+    }
+
+    /**
+     * Route the GET request at endpoint "queue" to view the order queue, answered with 304 if the queue
+     * did not change since the ETag the client sent
      * @param pageable attributes for defining a page
-     * @return the dto for the order queue
+     * @param webRequest the current request
+     * @return the dto for the order queue, null if not modified
      */
     @GetMapping("/queue")
-    @ResponseStatus(HttpStatus.OK)
-    public OrderQueueDto viewQueue(Pageable pageable) {
+    public OrderQueueDto viewQueue(Pageable pageable, WebRequest webRequest) {
+        if (webRequest.checkNotModified(queueETag())) {
+            return null;
+        }
         return orderService.viewQueue(pageable);
     }
 
     /**
-     * Route the GET request at endpoint "next_delivery" to view the next delivery
-     * @return the dto for the next delivery
+     * Route the GET request at endpoint "queue/export" to stream the whole order queue as newline delimited json
+     * @return the response body writing one order response per line
+     */
+    @GetMapping(value = "/queue/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportQueue() {
+        StreamingResponseBody responseBody = outputStream -> {
+            try (Stream<OrderResponse> orderResponses = orderService.exportQueue()) {
+                Iterator<OrderResponse> iterator = orderResponses.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
+    /**
+     * Route the GET request at endpoint "next_delivery" to view the next delivery, answered with 304 if the queue
+     * did not change since the ETag the client sent
+     * @param webRequest the current request
+     * @return the dto for the next delivery, null if not modified
      */
     @GetMapping("/next_delivery")
-    @ResponseStatus(HttpStatus.OK)
-    public UpcomingDeliveryDto viewNextDelivery() {
+    public UpcomingDeliveryDto viewNextDelivery(WebRequest webRequest) {
+        if (webRequest.checkNotModified(queueETag())) {
+            return null;
+        }
         return orderService.viewNextDelivery();
     }
+
+    /**
+     * Route the POST request at endpoint "dispatch" to take the next delivery out of the queue
+     * @return the dto for the dispatched delivery
+     */
+    @PostMapping("/dispatch")
+    @ResponseStatus(HttpStatus.OK)
+    public UpcomingDeliveryDto dispatchNextDelivery() {
+        return orderService.dispatchNextDelivery();
+    }
+
+    // read before the body, a write in between only makes the next request of the client a full response
+    private String queueETag() {
+        return String.valueOf(orderService.queueVersion());
+    }
 }
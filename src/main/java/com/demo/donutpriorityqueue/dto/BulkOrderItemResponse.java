@@ -0,0 +1,6 @@
+package com.demo.donutpriorityqueue.dto;
+
+import org.springframework.http.HttpStatus;
+
+public record BulkOrderItemResponse(Short customerId, Short quantity, HttpStatus statusCode, String message) {
+}
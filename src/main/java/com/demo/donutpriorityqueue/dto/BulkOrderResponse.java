@@ -0,0 +1,6 @@
+package com.demo.donutpriorityqueue.dto;
+
+import java.util.List;
+
+public record BulkOrderResponse(List<BulkOrderItemResponse> orderResults) {
+}
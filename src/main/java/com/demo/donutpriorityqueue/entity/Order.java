@@ -2,6 +2,7 @@ package com.demo.donutpriorityqueue.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
 
 import java.time.Instant;
 
@@ -10,16 +11,26 @@ import java.time.Instant;
 @ToString
 @Entity
 @NoArgsConstructor
-@AllArgsConstructor
 @Table(name = "donut_order")
-public class Order {
+public class Order implements OrderSummary {
     @Id
-    @GeneratedValue
-    private final Long id = 1L;
+    @GeneratedValue(generator = "order_id")
+    @GenericGenerator(name = "order_id", strategy = "com.demo.donutpriorityqueue.entity.OrderIdGenerator")
+    private Long id;
     @Column(unique = true)
     private Short customerId = 0;
     private Short quantity = 0;
-    private final Long timestamp = Instant.now().getEpochSecond();
+    private Long timestamp = Instant.now().getEpochSecond();
 
-}
+    public Order(Short customerId, Short quantity) {
+        this.customerId = customerId;
+        this.quantity = quantity;
+    }
+
+    public Order(Short customerId, Short quantity, Long timestamp) {
+        this.customerId = customerId;
+        this.quantity = quantity;
+        this.timestamp = timestamp;
+    }
 
+}
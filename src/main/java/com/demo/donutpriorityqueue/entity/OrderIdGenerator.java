@@ -0,0 +1,33 @@
+package com.demo.donutpriorityqueue.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator for order ids which hands out a block of ids per sequence call with the pooled-lo optimizer,
+ * so inserts do not wait for a sequence round-trip each and can be batched.
+ * The block size is read from the {@value #ALLOCATION_SIZE_SETTING} setting.
+ */
+public class OrderIdGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE_SETTING = "donut.order_id.allocation_size";
+    public static final String SEQUENCE_NAME = "order_seq"; // implicit name of the sequence used so far
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Object allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .getOrDefault(ALLOCATION_SIZE_SETTING, DEFAULT_ALLOCATION_SIZE);
+
+        params.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        params.setProperty(INCREMENT_PARAM, allocationSize.toString());
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -0,0 +1,11 @@
+package com.demo.donutpriorityqueue.entity;
+
+/**
+ * The columns of an order needed to place it in the queue, implemented by the entity and
+ * used as projection so queue reads do not load full entities
+ */
+public interface OrderSummary {
+    Short getCustomerId();
+    Short getQuantity();
+    Long getTimestamp();
+}
@@ -1,7 +1,9 @@
 package com.demo.donutpriorityqueue.exception;
 
+import com.demo.donutpriorityqueue.metrics.OrderMetrics;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.NoResultException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -9,6 +11,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @RestControllerAdvice
 public class ControllerExceptionHandler {
+    @Autowired
+    private OrderMetrics orderMetrics;
 
     /**
      * Handles NOT_FOUND exceptions
@@ -18,6 +22,7 @@ public class ControllerExceptionHandler {
     @ExceptionHandler(NoResultException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse catchNotFoundException(Exception e) {
+        orderMetrics.countError(HttpStatus.NOT_FOUND);
         return new ErrorResponse(HttpStatus.NOT_FOUND, e.getMessage());
     }
 
@@ -29,6 +34,7 @@ public class ControllerExceptionHandler {
     @ExceptionHandler(EntityExistsException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse catchConflictException(Exception e) {
+        orderMetrics.countError(HttpStatus.CONFLICT);
         return new ErrorResponse(HttpStatus.CONFLICT, e.getMessage());
     }
 
@@ -40,6 +46,7 @@ public class ControllerExceptionHandler {
     @ExceptionHandler(IllegalStateException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse catchBadRequestException(Exception e) {
+        orderMetrics.countError(HttpStatus.BAD_REQUEST);
         return new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
     }
 }
@@ -1,35 +1,31 @@
 package com.demo.donutpriorityqueue.mapper;
 
-import com.demo.donutpriorityqueue.entity.Order;
-import com.demo.donutpriorityqueue.repository.OrderRepository;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
 import com.demo.donutpriorityqueue.dto.OrderQueueDto;
 import com.demo.donutpriorityqueue.dto.OrderResponse;
-import com.demo.donutpriorityqueue.util.OrderQueueUtil;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.queue.QueueEntry;
 import org.mapstruct.BeforeMapping;
 import org.mapstruct.Mapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import static java.lang.Math.min;
 
 @Mapper(componentModel = "spring")
 public abstract class OrderMapper {
     @Autowired
-    private OrderRepository orderRepository;
-    @Autowired
-    private OrderQueueUtil orderQueueUtil;
+    private OrderQueue orderQueue;
 
     /**
      * Map an order entity to the response dto for the order
-     * @param order order entity
+     * @param order order entity or summary
      * @return the response dto for an order
      */
-    public abstract OrderResponse orderToOrderResponse(Order order);
+    public abstract OrderResponse orderToOrderResponse(OrderSummary order);
 
     /**
      * Map a list of order response dto to dto for the order queue
@@ -42,28 +38,13 @@ public abstract class OrderMapper {
 
     /**
      * Will be called by orderToOrderResponse to compute the queuing status
-     * @param order order entity
+     * @param order order entity or summary
      * @return the response dto for an order
      */
     @BeforeMapping
-    public OrderResponse getQueuingStatus(Order order) {
-        Set<Order> previousOrders = new HashSet<>(orderRepository.findByTimestampLessThan(order.getTimestamp()));
-        List<Order> prioritizedOrders = orderQueueUtil.getPremiumOrders();
-
-        // check if current order is from premium customer
-        if (order.getCustomerId() < 1000) {
-            // filter out non-premium orders from previous orders
-            previousOrders = previousOrders
-                    .stream()
-                    .filter(prioritizedOrders::contains)
-                    .collect(Collectors.toSet());
-        } else {
-            // add premium orders in previous orders
-            previousOrders.addAll(prioritizedOrders);
-        }
-
-        int position = previousOrders.size() + 1;
-        int waitTime = orderQueueUtil.computeWaitTime(previousOrders, order);
+    public OrderResponse getQueuingStatus(OrderSummary order) {
+        int position = orderQueue.position(order);
+        int waitTime = orderQueue.waitTime(order);
 
         return new OrderResponse(order.getCustomerId(), order.getQuantity(), position, waitTime);
 
@@ -85,4 +66,23 @@ public abstract class OrderMapper {
         return new OrderQueueDto(new PageImpl<>(queuedOrderResponses.subList(pageStart, pageEnd), pageable, totalElements));
     }
 
+    /**
+     * Map a page of queue entries to dto for the order queue
+     * @param queueEntryPage page of queue entries with position and wait time already computed
+     * @return the dto for the order queue
+     */
+    public OrderQueueDto queueEntryPageToOrderQueueDto(Page<QueueEntry> queueEntryPage) {
+        return new OrderQueueDto(queueEntryPage.map(this::queueEntryToOrderResponse));
+    }
+
+    /**
+     * Map a queue entry to the response dto for the order
+     * @param queueEntry queue entry
+     * @return the response dto for an order
+     */
+    public OrderResponse queueEntryToOrderResponse(QueueEntry queueEntry) {
+        return new OrderResponse(queueEntry.customerId(), queueEntry.quantity(), queueEntry.position(),
+                queueEntry.waitTime());
+    }
+
 }
@@ -0,0 +1,121 @@
+package com.demo.donutpriorityqueue.metrics;
+
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.util.Constant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metrics of the order queue, exposed with the other actuator metrics on /actuator/prometheus.
+ * The size of every tier and the number of donuts queued are read from the {@link OrderQueue} on every scrape,
+ * wait times, times to dispatch, dispatched carts and error responses are recorded as they happen.
+ * Latencies of the endpoints and of the repository calls are timed by Spring Boot as http.server.requests and
+ * spring.data.repository.invocations.
+ */
+@Component
+public class OrderMetrics {
+    private static final List<HttpStatus> ERROR_STATUSES =
+            List.of(HttpStatus.BAD_REQUEST, HttpStatus.NOT_FOUND, HttpStatus.CONFLICT);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private OrderQueue orderQueue;
+
+    private DistributionSummary waitTime;
+    private Timer timeToDispatch;
+    private DistributionSummary cartDonuts;
+    private DistributionSummary cartFillRate;
+    private final Map<HttpStatus, Counter> errors = new EnumMap<>(HttpStatus.class);
+
+    @PostConstruct
+    public void register() {
+        Gauge.builder("donut.queue.orders", orderQueue, OrderQueue::premiumSize)
+                .description("Number of queued orders")
+                .tag("tier", "premium")
+                .register(meterRegistry);
+        Gauge.builder("donut.queue.orders", orderQueue, OrderQueue::regularSize)
+                .description("Number of queued orders")
+                .tag("tier", "regular")
+                .register(meterRegistry);
+        Gauge.builder("donut.queue.donuts", orderQueue, OrderQueue::donuts)
+                .description("Number of donuts ordered by the queued orders")
+                .register(meterRegistry);
+
+        waitTime = DistributionSummary.builder("donut.order.wait.time")
+                .description("Approximate wait time computed for an order")
+                .baseUnit("minutes")
+                .publishPercentileHistogram()
+                .maximumExpectedValue((double) Constant.DELIVERY_TIME * Constant.MAX_CUSTOMER_ID)
+                .register(meterRegistry);
+        timeToDispatch = Timer.builder("donut.order.dispatch.time")
+                .description("Time from placing an order until it is dispatched")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes((long) Constant.DELIVERY_TIME * Constant.MAX_CUSTOMER_ID))
+                .register(meterRegistry);
+        cartDonuts = DistributionSummary.builder("donut.cart.donuts")
+                .description("Donuts delivered per trip")
+                .baseUnit("donuts")
+                .publishPercentileHistogram()
+                .maximumExpectedValue((double) Constant.CART_CAPACITY)
+                .register(meterRegistry);
+        cartFillRate = DistributionSummary.builder("donut.cart.fill.rate")
+                .description("Share of the cart capacity used per trip")
+                .baseUnit("ratio")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1.0)
+                .register(meterRegistry);
+        for (HttpStatus status : ERROR_STATUSES) {
+            errors.put(status, Counter.builder("donut.order.errors")
+                    .description("Number of requests rejected with an error status")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Record the wait time computed for an order
+     * @param minutes wait time in minutes
+     */
+    public void recordWaitTime(int minutes) {
+        waitTime.record(minutes);
+    }
+
+    /**
+     * Record the time an order spent in the queue until it was dispatched
+     * @param timestamp timestamp of the order in seconds
+     */
+    public void recordDispatch(long timestamp) {
+        timeToDispatch.record(Duration.ofSeconds(Instant.now().getEpochSecond() - timestamp));
+    }
+
+    /**
+     * Record a dispatched cart
+     * @param donuts number of donuts in the cart
+     */
+    public void recordCart(int donuts) {
+        cartDonuts.record(donuts);
+        cartFillRate.record((double) donuts / Constant.CART_CAPACITY);
+    }
+
+    /**
+     * Count a request rejected with an error status
+     * @param status status of the response
+     */
+    public void countError(HttpStatus status) {
+        errors.get(status).increment();
+    }
+}
@@ -0,0 +1,29 @@
+package com.demo.donutpriorityqueue.queue;
+
+import java.time.Duration;
+
+/**
+ * A regular order is promoted to the premium tier once it has waited for a fixed time, from then on it is served
+ * in line with the premium orders placed after its promotion. The key is the time of promotion, the timestamp for
+ * premium orders, so the wait of a regular order behind premium orders is bounded by the promotion time.
+ */
+public class AgingPolicy implements SchedulingPolicy {
+    private final long promoteAfter;
+
+    /**
+     * @param promoteAfter how long a regular order waits before it is promoted, at least one second
+     * @throws IllegalArgumentException exception when the time is shorter than a second
+     */
+    public AgingPolicy(Duration promoteAfter) throws IllegalArgumentException {
+        if (promoteAfter.getSeconds() < 1) {
+            throw new IllegalArgumentException(String.format("Promotion time %s is shorter than a second!",
+                    promoteAfter));
+        }
+        this.promoteAfter = promoteAfter.getSeconds();
+    }
+
+    @Override
+    public long key(boolean premium, short quantity, long timestamp, ServiceClock clock) {
+        return premium ? timestamp : timestamp + promoteAfter;
+    }
+}
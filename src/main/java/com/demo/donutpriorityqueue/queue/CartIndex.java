@@ -0,0 +1,79 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.util.Constant;
+
+/**
+ * Cart number of every queued order under the {@link FifoCartPacker}, indexed by queue position. An order goes into
+ * the current cart if it fits, otherwise it starts the next cart of {@link Constant#CART_CAPACITY}. Inserting or
+ * removing an order only re-packs the positions behind it and stops as soon as the packing matches the previous one
+ * again.
+ * Not thread safe.
+ */
+class CartIndex {
+    private final int[] quantities = new int[Constant.MAX_CUSTOMER_ID];
+    private final int[] cartNumbers = new int[Constant.MAX_CUSTOMER_ID];
+    private final int[] cartCapacities = new int[Constant.MAX_CUSTOMER_ID]; // capacity left after the order
+    private int size;
+
+    /**
+     * Insert an order at a position of the queue
+     * @param position zero based position
+     * @param quantity quantity of the order
+     */
+    void insert(int position, int quantity) {
+        System.arraycopy(quantities, position, quantities, position + 1, size - position);
+        System.arraycopy(cartNumbers, position, cartNumbers, position + 1, size - position);
+        System.arraycopy(cartCapacities, position, cartCapacities, position + 1, size - position);
+        quantities[position] = quantity;
+        size ++;
+        repack(position);
+    }
+
+    /**
+     * Remove the order at a position of the queue
+     * @param position zero based position
+     */
+    void remove(int position) {
+        size --;
+        System.arraycopy(quantities, position + 1, quantities, position, size - position);
+        System.arraycopy(cartNumbers, position + 1, cartNumbers, position, size - position);
+        System.arraycopy(cartCapacities, position + 1, cartCapacities, position, size - position);
+        repack(position);
+    }
+
+    /**
+     * Get the cart the order at a position is delivered with, counting starts at 1
+     * @param position zero based position
+     * @return cart number
+     */
+    int cartNumber(int position) {
+        return cartNumbers[position];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private void repack(int from) {
+        int cartNumber = from == 0 ? 1 : cartNumbers[from - 1];
+        int cartCapacity = from == 0 ? Constant.CART_CAPACITY : cartCapacities[from - 1];
+        for (int i = from; i < size; i ++) {
+            if (quantities[i] > cartCapacity) {
+                cartNumber ++;
+                cartCapacity = Constant.CART_CAPACITY - quantities[i];
+            } else {
+                cartCapacity -= quantities[i];
+            }
+            // the rest of the queue is packed exactly as before
+            if (i > from && cartNumbers[i] == cartNumber && cartCapacities[i] == cartCapacity) {
+                return;
+            }
+            cartNumbers[i] = cartNumber;
+            cartCapacities[i] = cartCapacity;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * Chooses the orders of the next cart among the orders at the head of the queue. The order at the head is always
+ * taken, so an order is dispatched with one of the next carts up to its position and the tier priority of the
+ * {@link SchedulingPolicy} is kept, orders further back only fill the capacity the head leaves.
+ */
+public interface CartPacker {
+    /**
+     * Get the number of orders at the head of the queue the packer chooses from
+     * @return size of the window
+     */
+    int window();
+
+    /**
+     * Choose the orders of the next cart
+     * @param quantities quantities of the orders at the head of the queue in queue order, at most {@link #window()}
+     * @param capacity capacity of the cart
+     * @return positions of the chosen orders in quantities, ascending
+     */
+    int[] pack(int[] quantities, int capacity);
+
+    /**
+     * Check if the packer takes orders in queue order up to the first one which does not fit. The carts of such
+     * a packer are kept up to date on every change of the queue, the carts of any other packer are worked out
+     * once per version
+     * @return true if orders are never skipped
+     */
+    default boolean nextFit() {
+        return false;
+    }
+}
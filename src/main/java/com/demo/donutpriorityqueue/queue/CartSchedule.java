@@ -0,0 +1,66 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * Cart number of every queued order under a {@link CartPacker} which may skip orders, indexed by queue position.
+ * The carts are packed one after the other from the head of the queue the way {@link OrderQueue#pollNextCart()}
+ * takes them, so an order skipped by a cart stays in the window of the next one. Packing the whole queue costs
+ * one call of the packer per cart, so a schedule is worked out once per version of the queue. Immutable.
+ */
+class CartSchedule {
+    private final long version;
+    private final int[] cartNumbers;
+
+    /**
+     * @param version version of the queue the quantities were read at
+     * @param quantities quantities of the queued orders in queue order
+     * @param cartPacker chooses the orders of every cart
+     * @param capacity capacity of a cart
+     */
+    CartSchedule(long version, int[] quantities, CartPacker cartPacker, int capacity) {
+        this.version = version;
+        this.cartNumbers = new int[quantities.length];
+
+        // positions of the orders not packed yet within the window, in queue order
+        int[] window = new int[Math.min(cartPacker.window(), quantities.length)];
+        int windowSize = 0;
+        int next = 0;
+        for (int cartNumber = 1; windowSize > 0 || next < quantities.length; cartNumber ++) {
+            while (windowSize < window.length && next < quantities.length) {
+                window[windowSize ++] = next ++;
+            }
+            int[] windowQuantities = new int[windowSize];
+            for (int i = 0; i < windowSize; i ++) {
+                windowQuantities[i] = quantities[window[i]];
+            }
+
+            int[] positions = cartPacker.pack(windowQuantities, capacity);
+            // an order no cart can take is given one of its own, so that the schedule ends
+            if (positions.length == 0) {
+                positions = new int[] {0};
+            }
+            int kept = 0;
+            for (int i = 0, p = 0; i < windowSize; i ++) {
+                if (p < positions.length && positions[p] == i) {
+                    cartNumbers[window[i]] = cartNumber;
+                    p ++;
+                } else {
+                    window[kept ++] = window[i];
+                }
+            }
+            windowSize = kept;
+        }
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * Get the cart the order at a position is delivered with, counting starts at 1
+     * @param position zero based position
+     * @return cart number
+     */
+    int cartNumber(int position) {
+        return cartNumbers[position];
+    }
+}
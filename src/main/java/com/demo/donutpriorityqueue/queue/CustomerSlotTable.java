@@ -0,0 +1,63 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.util.Constant;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * One slot for every customer id in the accepted range, a customer holds its slot from the moment an order is
+ * accepted until the order is deleted. A claim is a single compare-and-set, so checking and reserving a customer id
+ * is atomic without taking a lock.
+ */
+class CustomerSlotTable {
+    private static final int FREE = 0;
+    private static final int CLAIMED = 1;
+
+    private final AtomicIntegerArray slots =
+            new AtomicIntegerArray(Constant.MAX_CUSTOMER_ID - Constant.MIN_CUSTOMER_ID + 1);
+
+    /**
+     * Claim the slot of a customer
+     * @param customerId id of a customer within the accepted range
+     * @return false if the slot is already claimed
+     */
+    boolean claim(short customerId) {
+        return slots.compareAndSet(index(customerId), FREE, CLAIMED);
+    }
+
+    /**
+     * Release the slot of a customer
+     * @param customerId id of a customer within the accepted range
+     */
+    void release(short customerId) {
+        slots.set(index(customerId), FREE);
+    }
+
+    boolean isClaimed(short customerId) {
+        return slots.get(index(customerId)) == CLAIMED;
+    }
+
+    /**
+     * Count the claimed slots, reads every slot
+     * @return number of claimed slots
+     */
+    int count() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i ++) {
+            if (slots.get(i) == CLAIMED) {
+                count ++;
+            }
+        }
+        return count;
+    }
+
+    void clear() {
+        for (int i = 0; i < slots.length(); i ++) {
+            slots.set(i, FREE);
+        }
+    }
+
+    private static int index(short customerId) {
+        return customerId - Constant.MIN_CUSTOMER_ID;
+    }
+}
@@ -0,0 +1,32 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.util.Constant;
+
+import java.util.stream.IntStream;
+
+/**
+ * Orders are taken in queue order until the first one which does not fit, this is the packing the {@link CartIndex}
+ * keeps up to date
+ */
+public class FifoCartPacker implements CartPacker {
+
+    // holds the whole cart only because every order has a quantity of at least 1, see OrderValidator
+    @Override
+    public int window() {
+        return Constant.CART_CAPACITY;
+    }
+
+    @Override
+    public int[] pack(int[] quantities, int capacity) {
+        int size = 0;
+        while (size < quantities.length && quantities[size] <= capacity) {
+            capacity -= quantities[size ++];
+        }
+        return IntStream.range(0, size).toArray();
+    }
+
+    @Override
+    public boolean nextFit() {
+        return true;
+    }
+}
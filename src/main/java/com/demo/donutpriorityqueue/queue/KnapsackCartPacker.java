@@ -0,0 +1,62 @@
+package com.demo.donutpriorityqueue.queue;
+
+import java.util.Arrays;
+
+/**
+ * The order at the head is taken and the capacity it leaves is filled as far as possible from the rest of the
+ * window, a 0/1 knapsack over the quantities solved by dynamic programming in O(window * capacity). Among equally
+ * full carts the one taking orders closer to the head is chosen.
+ */
+public class KnapsackCartPacker implements CartPacker {
+    private final int window;
+
+    /**
+     * @param window number of orders at the head of the queue to choose from, at least 1
+     * @throws IllegalArgumentException exception when the window is less than 1
+     */
+    public KnapsackCartPacker(int window) throws IllegalArgumentException {
+        if (window < 1) {
+            throw new IllegalArgumentException(String.format("Window %d must be at least 1!", window));
+        }
+        this.window = window;
+    }
+
+    @Override
+    public int window() {
+        return window;
+    }
+
+    @Override
+    public int[] pack(int[] quantities, int capacity) {
+        int size = quantities.length;
+        if (size == 0 || quantities[0] > capacity) {
+            return new int[0];
+        }
+        capacity -= quantities[0];
+
+        // most donuts that fit in c using the orders from i on: best[i * stride + c]
+        int stride = capacity + 1;
+        int[] best = new int[(size + 1) * stride];
+        for (int i = size - 1; i > 0; i --) {
+            int quantity = Math.max(quantities[i], 0);
+            for (int c = 0; c <= capacity; c ++) {
+                int skip = best[(i + 1) * stride + c];
+                int take = quantity <= c ? quantity + best[(i + 1) * stride + c - quantity] : -1;
+                best[i * stride + c] = Math.max(skip, take);
+            }
+        }
+
+        // walk from the head, an order is taken whenever taking it still reaches the best fill
+        int[] positions = new int[size];
+        positions[0] = 0;
+        int chosen = 1;
+        for (int i = 1, c = capacity; i < size; i ++) {
+            int quantity = Math.max(quantities[i], 0);
+            if (quantity <= c && quantity + best[(i + 1) * stride + c - quantity] == best[i * stride + c]) {
+                positions[chosen ++] = i;
+                c -= quantity;
+            }
+        }
+        return Arrays.copyOf(positions, chosen);
+    }
+}
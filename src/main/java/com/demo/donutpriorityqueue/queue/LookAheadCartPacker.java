@@ -0,0 +1,40 @@
+package com.demo.donutpriorityqueue.queue;
+
+import java.util.Arrays;
+
+/**
+ * Orders are taken in queue order, an order which does not fit is skipped and the next ones within the window are
+ * tried until the cart is full
+ */
+public class LookAheadCartPacker implements CartPacker {
+    private final int window;
+
+    /**
+     * @param window number of orders at the head of the queue to choose from, at least 1
+     * @throws IllegalArgumentException exception when the window is less than 1
+     */
+    public LookAheadCartPacker(int window) throws IllegalArgumentException {
+        if (window < 1) {
+            throw new IllegalArgumentException(String.format("Window %d must be at least 1!", window));
+        }
+        this.window = window;
+    }
+
+    @Override
+    public int window() {
+        return window;
+    }
+
+    @Override
+    public int[] pack(int[] quantities, int capacity) {
+        int[] positions = new int[quantities.length];
+        int size = 0;
+        for (int i = 0; i < quantities.length && capacity > 0; i ++) {
+            if (quantities[i] <= capacity) {
+                capacity -= quantities[i];
+                positions[size ++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, size);
+    }
+}
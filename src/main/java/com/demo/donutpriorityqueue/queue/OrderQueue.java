@@ -0,0 +1,704 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.store.OrderStore;
+import com.demo.donutpriorityqueue.util.Constant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory priority queue of the open orders, kept in an order-statistic tree sorted by the service key the
+ * {@link SchedulingPolicy} gives every order, so that the position of an order is known without a database
+ * round-trip. The orders and the tree nodes are rows of an {@link OrderTable} indexed by customer id, orders are
+ * only materialised as objects when they are handed out. The next cart is chosen by a {@link CartPacker} from the
+ * head of the queue, and wait times follow the carts the same packer would pack: the carts of the next-fit packer
+ * are kept in a {@link CartIndex}, the carts of the others are packed in a {@link CartSchedule} once per version.
+ * The {@link OrderStore} stays the system of record, the queue is rebuilt from it on startup unless the copy
+ * written on the last shutdown still matches it, see {@link #restore()}.
+ * Every write bumps the version of the queue. Pages are read straight from the tree, the next cart is shared by
+ * all readers of a version in a {@link QueueSnapshot} taken once after a write.
+ * New orders claim the slot of their customer before they are persisted, see {@link #claim(short)}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderQueue {
+    /**
+     * Creates the status of a queued order from its fields
+     * @param <T> type of the status
+     */
+    @FunctionalInterface
+    public interface StatusFactory<T> {
+        T create(Short customerId, short quantity, int position, int waitTime);
+    }
+
+    private final OrderStore orderStore;
+    private final SchedulingPolicy schedulingPolicy;
+    private final CartPacker cartPacker;
+    // no copy of the queue is kept if empty
+    @Value("${donut.queue.snapshot:}")
+    private String snapshotPath;
+
+    // orders with the same service key are served by tier and timestamp, ties are broken by the unique customer id
+    private OrderTable orders = new OrderTable();
+    private OrderStatisticTree queuedOrders = new OrderStatisticTree(orders);
+    private ServiceClock serviceClock = new ServiceClock();
+    private CartIndex cartIndex = new CartIndex();
+    private final CustomerSlotTable customerSlots = new CustomerSlotTable();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // starts at the boot time so that a version is not handed out again after a restart
+    private volatile long version = System.currentTimeMillis();
+    private volatile QueueSnapshot snapshot;
+    // one reader takes the snapshot of a new version, the others wait for it instead of taking their own
+    private final Lock snapshotLock = new ReentrantLock();
+    private volatile CartSchedule cartSchedule;
+    // only taken while holding the queue lock, so a reader never waits for it with a writer queued behind
+    private final Lock cartScheduleLock = new ReentrantLock();
+    // writes since the changes were last taken, see takeChanges(), guarded by the write lock
+    private long changesSince = version;
+    private int dispatched;
+    private int dispatchedCarts;
+    private int firstChanged = Integer.MAX_VALUE;
+
+    /**
+     * Restore the queue from the copy written on the last shutdown, the copy is deleted once read so it is
+     * never restored twice. It is only used while the version of the store is the one it was taken at, which is
+     * read without looking at the orders, otherwise the queue is rebuilt from the store
+     */
+    @PostConstruct
+    public void restore() {
+        if (snapshotPath != null && !snapshotPath.isBlank() && Files.exists(Path.of(snapshotPath))) {
+            try {
+                QueueFile.Copy saved = QueueFile.read(Path.of(snapshotPath));
+                Files.delete(Path.of(snapshotPath));
+                if (saved.storeVersion() == orderStore.version()) {
+                    replace(saved.orders()::forEach);
+                    return;
+                }
+            } catch (IOException e) {
+                // an unreadable copy is as good as none
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Write a copy of the queue on shutdown, to be restored on the next startup. The version of the store is read
+     * before the orders are copied, so a write stored meanwhile makes the copy stale. An order is stored between
+     * its claim and the offer, and deleted between the cancel and the release, so no copy is written while a
+     * claimed slot has no queued order
+     * @throws IOException if the copy can not be written
+     */
+    @PreDestroy
+    public void save() throws IOException {
+        if (snapshotPath != null && !snapshotPath.isBlank()) {
+            long storeVersion = orderStore.version();
+            List<OrderSummary> queued;
+            lock.readLock().lock();
+            try {
+                if (customerSlots.count() != orders.size()) {
+                    return;
+                }
+                queued = toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+            QueueFile.write(Path.of(snapshotPath), storeVersion, queued);
+        }
+    }
+
+    /**
+     * Rebuild the queue from the orders of the store. The orders are streamed in the order of the store
+     * and swapped in once complete, so neither the result set nor a sorted copy is ever held in memory.
+     * The customer slots are reset to the persisted orders, claims of orders not yet persisted are dropped
+     */
+    public void rebuild() {
+        replace(orderStore::load);
+    }
+
+    // orders of a tier must arrive in the order they are served in
+    private void replace(Consumer<Consumer<OrderSummary>> source) {
+        OrderTable table = new OrderTable();
+        OrderStatisticTree queue = new OrderStatisticTree(table);
+        ServiceClock clock = new ServiceClock();
+        CartIndex carts = new CartIndex();
+
+        source.accept(order -> {
+            short customerId = order.getCustomerId();
+            if (!table.contains(customerId)) {
+                boolean premium = OrderTable.isPremium(customerId);
+                long key = schedulingPolicy.key(premium, order.getQuantity(), order.getTimestamp(), clock);
+                table.put(customerId, order.getQuantity(), order.getTimestamp(), key);
+                schedulingPolicy.commit(premium, order.getQuantity(), key, clock);
+                queue.add(customerId);
+            }
+        });
+        // the carts are packed by appending once the order of the queue is known
+        queue.iterator().forEachRemaining((int customerId) -> carts.insert(carts.size(),
+                table.quantity((short) customerId)));
+
+        lock.writeLock().lock();
+        try {
+            orders = table;
+            queuedOrders = queue;
+            serviceClock = clock;
+            cartIndex = carts;
+            customerSlots.clear();
+            iterator(0, table.size()).forEachRemaining((int customerId) -> customerSlots.claim((short) customerId));
+            firstChanged = 0;
+            version ++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Claim the slot of a customer for a new order, without locking the queue. The slot stays claimed until it
+     * is released, so at most one order of a customer can be accepted at a time
+     * @param customerId id of a customer within the accepted range
+     * @return false if the customer already has an accepted order
+     */
+    public boolean claim(short customerId) {
+        return customerSlots.claim(customerId);
+    }
+
+    /**
+     * Release the slot of a customer once the order is deleted or could not be persisted
+     * @param customerId id of a customer within the accepted range
+     */
+    public void release(short customerId) {
+        customerSlots.release(customerId);
+    }
+
+    /**
+     * Add an order to the queue
+     * @param order order entity
+     * @return false if the customer already has an order in the queue
+     */
+    public boolean offer(OrderSummary order) {
+        lock.writeLock().lock();
+        try {
+            if (orders.contains(order.getCustomerId())) {
+                return false;
+            }
+            add(order, schedulingPolicy.key(OrderTable.isPremium(order.getCustomerId()), order.getQuantity(),
+                    order.getTimestamp(), serviceClock));
+            version ++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Put back an order taken out by {@link #cancel(short)}, when it could not be deleted from the store. The order
+     * keeps its service key and so its place in the queue, its share is charged again
+     * @param order order returned by cancel
+     * @return false if the customer already has an order in the queue
+     */
+    public boolean restore(OrderSummary order) {
+        lock.writeLock().lock();
+        try {
+            if (orders.contains(order.getCustomerId())) {
+                return false;
+            }
+            add(order, ((QueuedOrder) order).getKey());
+            version ++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Put back the orders taken out by {@link #pollNextCart()}, when they could not be deleted from the store.
+     * The orders keep their service keys, the share they used when they were served is not charged again
+     * @param cart orders returned by pollNextCart
+     */
+    public void restoreCart(List<OrderSummary> cart) {
+        lock.writeLock().lock();
+        try {
+            for (OrderSummary order : cart) {
+                if (!orders.contains(order.getCustomerId())) {
+                    insert(order, ((QueuedOrder) order).getKey());
+                }
+            }
+            version ++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the order of a customer from the queue, the share of the order is given back to its tier
+     * @param customerId id of a customer
+     * @return the removed order entity, null if the customer has no order in the queue
+     */
+    public OrderSummary cancel(short customerId) {
+        lock.writeLock().lock();
+        try {
+            if (!orders.contains(customerId)) {
+                return null;
+            }
+            OrderSummary order = summary(customerId);
+            schedulingPolicy.credit(OrderTable.isPremium(customerId), orders.quantity(customerId),
+                    orders.key(customerId), serviceClock);
+            changedFrom(rank(customerId));
+            remove(customerId);
+            version ++;
+            return order;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the order at the head of the queue without removing it
+     * @return order entity, null if the queue is empty
+     */
+    public OrderSummary peek() {
+        lock.readLock().lock();
+        try {
+            return !queuedOrders.isEmpty() ? summary(queuedOrders.first()) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the order at the head of the queue
+     * @return order entity, null if the queue is empty
+     */
+    public OrderSummary poll() {
+        lock.writeLock().lock();
+        try {
+            OrderSummary order = pollFirst();
+            if (order != null) {
+                version ++;
+            }
+            return order;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the orders the {@link CartPacker} chooses for the next cart
+     * @return list of order entity
+     */
+    public List<OrderSummary> nextCart() {
+        return snapshot().nextCart();
+    }
+
+    /**
+     * Remove the orders the {@link CartPacker} chooses for the next cart, concurrent callers never get
+     * the same order
+     * @return list of order entity
+     */
+    public List<OrderSummary> pollNextCart() {
+        lock.writeLock().lock();
+        try {
+            List<OrderSummary> cart = fillCart();
+            // a next-fit cart is a prefix of the queue, once it is the whole first cart the others stay as packed
+            if (cartPacker.nextFit() && (cart.size() == orders.size() || cartIndex.cartNumber(cart.size()) == 2)) {
+                firstChanged = Math.max(firstChanged - cart.size(), 0);
+                dispatched += cart.size();
+                dispatchedCarts ++;
+            } else if (!cart.isEmpty()) {
+                changedFrom(0);
+            }
+            cart.forEach(order -> {
+                serviceClock.served(orders.key(order.getCustomerId()));
+                remove(order.getCustomerId());
+            });
+            if (!cart.isEmpty()) {
+                version ++;
+            }
+            return cart;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the queued order of a customer
+     * @param customerId id of a customer
+     * @return order entity, null if the customer has no order in the queue
+     */
+    public OrderSummary get(short customerId) {
+        lock.readLock().lock();
+        try {
+            return orders.contains(customerId) ? summary(customerId) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the status of the queued order of a customer with a single lookup, nothing is allocated apart from
+     * what the factory creates
+     * @param customerId id of a customer, passed to the factory as is
+     * @param statusFactory creates the status from the fields of the order
+     * @param <T> type of the status
+     * @return status of the order, null if the customer has no order in the queue
+     */
+    public <T> T status(Short customerId, StatusFactory<T> statusFactory) {
+        lock.readLock().lock();
+        try {
+            if (!orders.contains(customerId)) {
+                return null;
+            }
+            int rank = rank(customerId);
+            return statusFactory.create(customerId, orders.quantity(customerId), rank + 1,
+                    Constant.DELIVERY_TIME * cartNumber(rank));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Check if a customer has an order in the queue
+     * @param customerId id of a customer
+     * @return true if the customer has a queued order
+     */
+    public boolean contains(short customerId) {
+        lock.readLock().lock();
+        try {
+            return orders.contains(customerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of queued orders
+     * @return size of the queue
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return orders.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of queued orders of premium customers
+     * @return size of the premium tier
+     */
+    public int premiumSize() {
+        lock.readLock().lock();
+        try {
+            return orders.premiumSize();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of queued orders of regular customers
+     * @return size of the regular tier
+     */
+    public int regularSize() {
+        lock.readLock().lock();
+        try {
+            return orders.size() - orders.premiumSize();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of donuts ordered by all queued orders
+     * @return sum of the quantities of the queued orders
+     */
+    public int donuts() {
+        lock.readLock().lock();
+        try {
+            return orders.totalQuantity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the version of the queue, it increases with every change to the queue
+     * @return version of the queue
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Take the changes of the queue since they were last taken, meant for a single consumer which keeps the
+     * statuses of some orders up to date
+     * @return changes since the last call
+     */
+    public QueueChanges takeChanges() {
+        lock.writeLock().lock();
+        try {
+            QueueChanges changes = new QueueChanges(changesSince, version, dispatched, dispatchedCarts,
+                    firstChanged);
+            changesSince = version;
+            dispatched = 0;
+            dispatchedCarts = 0;
+            firstChanged = Integer.MAX_VALUE;
+            return changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get a snapshot of the current version of the queue, the snapshot is taken once per version and shared
+     * so readers of an unchanged queue do not lock it
+     * @return snapshot of the queue
+     */
+    public QueueSnapshot snapshot() {
+        QueueSnapshot current = snapshot;
+        if (current != null && current.version() == version) {
+            return current;
+        }
+
+        snapshotLock.lock();
+        try {
+            current = snapshot;
+            if (current != null && current.version() == version) {
+                return current;
+            }
+            lock.readLock().lock();
+            try {
+                current = new QueueSnapshot(version, Collections.unmodifiableList(fillCart()));
+            } finally {
+                lock.readLock().unlock();
+            }
+            snapshot = current;
+            return current;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Get the position of an order in the queue, counting starts at 1
+     * @param order order entity
+     * @return position of the order
+     */
+    public int position(OrderSummary order) {
+        lock.readLock().lock();
+        try {
+            return rank(order.getCustomerId()) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the wait time of a queued order from the cart it is packed into
+     * @param order order entity
+     * @return wait time in minutes
+     */
+    public int waitTime(OrderSummary order) {
+        lock.readLock().lock();
+        try {
+            return Constant.DELIVERY_TIME * cartNumber(rank(order.getCustomerId()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a page of the queue, the tree is entered at the offset of the page so only the entries of the page
+     * are read
+     * @param pageable attributes for defining a page
+     * @return page of queue entries
+     */
+    public Page<QueueEntry> page(Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            int totalElements = orders.size();
+            int pageStart = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), totalElements) : 0;
+            int pageSize = pageable.isPaged() ? pageable.getPageSize() : totalElements;
+
+            return new PageImpl<>(entries(pageStart, pageSize), pageable, totalElements);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the entries following a keyset cursor, used to walk the whole queue in chunks
+     * @param cursor last entry of the previous chunk, null to start at the head of the queue
+     * @param limit maximum number of entries
+     * @return list of queue entries
+     */
+    public List<QueueEntry> entriesAfter(QueueCursor cursor, int limit) {
+        lock.readLock().lock();
+        try {
+            int start = cursor == null ? 0 :
+                    queuedOrders.rankAfter(cursor.key(), cursor.timestamp(), cursor.customerId());
+            return entries(start, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy the queue in the order it is served in
+     * @return list of order summary
+     */
+    public List<OrderSummary> toList() {
+        lock.readLock().lock();
+        try {
+            List<OrderSummary> queue = new ArrayList<>(orders.size());
+            iterator(0, orders.size()).forEachRemaining((int customerId) -> queue.add(summary((short) customerId)));
+            return queue;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(OrderSummary order, long key) {
+        insert(order, key);
+        schedulingPolicy.commit(OrderTable.isPremium(order.getCustomerId()), order.getQuantity(), key, serviceClock);
+    }
+
+    private void insert(OrderSummary order, long key) {
+        short customerId = order.getCustomerId();
+        orders.put(customerId, order.getQuantity(), order.getTimestamp(), key);
+        queuedOrders.add(customerId);
+        int rank = rank(customerId);
+        cartIndex.insert(rank, order.getQuantity());
+        changedFrom(rank);
+    }
+
+    private OrderSummary pollFirst() {
+        short customerId = queuedOrders.pollFirst();
+        if (customerId == OrderTable.NIL) {
+            return null;
+        }
+        serviceClock.served(orders.key(customerId));
+        OrderSummary order = summary(customerId);
+        orders.remove(customerId);
+        cartIndex.remove(0);
+        changedFrom(0);
+        return order;
+    }
+
+    private void remove(short customerId) {
+        cartIndex.remove(rank(customerId));
+        queuedOrders.remove(customerId);
+        orders.remove(customerId);
+    }
+
+    // orders before the position keep their place and, packed next-fit, their cart, called under the write lock
+    private void changedFrom(int position) {
+        firstChanged = cartPacker.nextFit() ? Math.min(firstChanged, position) : 0;
+    }
+
+    private List<OrderSummary> fillCart() {
+        int window = Math.min(cartPacker.window(), orders.size());
+        short[] customerIds = new short[window];
+        int[] quantities = new int[window];
+        PrimitiveIterator.OfInt head = iterator(0, window);
+        for (int i = 0; i < window; i ++) {
+            customerIds[i] = (short) head.nextInt();
+            quantities[i] = orders.quantity(customerIds[i]);
+        }
+
+        int[] positions = cartPacker.pack(quantities, Constant.CART_CAPACITY);
+        List<OrderSummary> cart = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            cart.add(summary(customerIds[position]));
+        }
+        return cart;
+    }
+
+    private List<QueueEntry> entries(int start, int limit) {
+        List<QueueEntry> entries = new ArrayList<>(Math.max(Math.min(limit, orders.size() - start), 0));
+        PrimitiveIterator.OfInt customerIds = iterator(start, limit);
+        for (int position = start; customerIds.hasNext(); position ++) {
+            short customerId = (short) customerIds.nextInt();
+            entries.add(new QueueEntry(customerId, orders.quantity(customerId), orders.timestamp(customerId),
+                    orders.key(customerId), position + 1, Constant.DELIVERY_TIME * cartNumber(position)));
+        }
+        return entries;
+    }
+
+    // called under the queue lock
+    private int cartNumber(int position) {
+        if (cartPacker.nextFit()) {
+            return cartIndex.cartNumber(position);
+        }
+
+        CartSchedule current = cartSchedule;
+        if (current == null || current.version() != version) {
+            cartScheduleLock.lock();
+            try {
+                current = cartSchedule;
+                if (current == null || current.version() != version) {
+                    int[] quantities = new int[orders.size()];
+                    PrimitiveIterator.OfInt customerIds = iterator(0, quantities.length);
+                    for (int i = 0; i < quantities.length; i ++) {
+                        quantities[i] = orders.quantity((short) customerIds.nextInt());
+                    }
+                    current = new CartSchedule(version, quantities, cartPacker, Constant.CART_CAPACITY);
+                    cartSchedule = current;
+                }
+            } finally {
+                cartScheduleLock.unlock();
+            }
+        }
+        return current.cartNumber(position);
+    }
+
+    private OrderSummary summary(short customerId) {
+        return new QueuedOrder(customerId, orders.quantity(customerId), orders.timestamp(customerId),
+                orders.key(customerId));
+    }
+
+    private int rank(short customerId) {
+        return queuedOrders.rank(orders.key(customerId), orders.timestamp(customerId), customerId);
+    }
+
+    private PrimitiveIterator.OfInt iterator(int from, int limit) {
+        PrimitiveIterator.OfInt customerIds = queuedOrders.iterator(from);
+        return new PrimitiveIterator.OfInt() {
+            private int remaining = limit;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0 && customerIds.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                remaining --;
+                return customerIds.nextInt();
+            }
+        };
+    }
+}
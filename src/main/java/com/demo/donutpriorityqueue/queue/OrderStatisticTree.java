@@ -0,0 +1,286 @@
+package com.demo.donutpriorityqueue.queue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.demo.donutpriorityqueue.queue.OrderTable.NIL;
+
+/**
+ * Set of orders sorted by service key, tier, timestamp and customer id, backed by a treap where every node also keeps
+ * the size of its subtree. This gives the rank of an order and the order at a rank in O(log n). On equal service keys
+ * premium orders come first. The key of an order is fixed while it is in the tree, so the tree never re-sorts.
+ * The nodes are the rows of an {@link OrderTable}, addressed by customer id, so the tree allocates no node objects.
+ * Several trees can share a table as long as a customer is in at most one of them.
+ * Not thread safe.
+ */
+class OrderStatisticTree {
+    private final OrderTable orders;
+    private short root = NIL;
+
+    OrderStatisticTree(OrderTable orders) {
+        this.orders = orders;
+    }
+
+    /**
+     * Add the order of a customer to the tree, the order must be stored in the table
+     * @param customerId id of a customer
+     * @return false if the order is already in the tree
+     */
+    boolean add(short customerId) {
+        if (contains(customerId)) {
+            return false;
+        }
+        orders.left[customerId] = NIL;
+        orders.right[customerId] = NIL;
+        orders.subtreeSize[customerId] = 1;
+        orders.priority[customerId] = ThreadLocalRandom.current().nextInt();
+        root = insert(root, customerId);
+        return true;
+    }
+
+    /**
+     * Remove the order of a customer from the tree, before it is removed from the table
+     * @param customerId id of a customer
+     * @return false if the order is not in the tree
+     */
+    boolean remove(short customerId) {
+        if (!contains(customerId)) {
+            return false;
+        }
+        root = delete(root, customerId);
+        return true;
+    }
+
+    boolean contains(short customerId) {
+        if (!orders.contains(customerId)) {
+            return false;
+        }
+        long key = orders.key(customerId);
+        long timestamp = orders.timestamp(customerId);
+        short node = root;
+        while (node != NIL) {
+            int cmp = compare(key, timestamp, customerId, node);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? orders.left[node] : orders.right[node];
+        }
+        return false;
+    }
+
+    /**
+     * Count the orders sorted before a key, which is the rank of an order with that key
+     * @param key service key of the key
+     * @param timestamp timestamp of the key
+     * @param customerId customer id of the key
+     * @return zero based rank of the key
+     */
+    int rank(long key, long timestamp, short customerId) {
+        return count(key, timestamp, customerId, false);
+    }
+
+    /**
+     * Count the orders sorted before or at a key, which is the rank of the first order after the key
+     * @param key service key of the key
+     * @param timestamp timestamp of the key
+     * @param customerId customer id of the key
+     * @return number of orders up to the key
+     */
+    int rankAfter(long key, long timestamp, short customerId) {
+        return count(key, timestamp, customerId, true);
+    }
+
+    /**
+     * Get the first order of the tree
+     * @return customer id of the order, {@link OrderTable#NIL} if the tree is empty
+     */
+    short first() {
+        short node = root;
+        if (node == NIL) {
+            return NIL;
+        }
+        while (orders.left[node] != NIL) {
+            node = orders.left[node];
+        }
+        return node;
+    }
+
+    /**
+     * Remove the first order of the tree
+     * @return customer id of the order, {@link OrderTable#NIL} if the tree is empty
+     */
+    short pollFirst() {
+        short customerId = first();
+        if (customerId != NIL) {
+            root = delete(root, customerId);
+        }
+        return customerId;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    boolean isEmpty() {
+        return root == NIL;
+    }
+
+    void clear() {
+        root = NIL;
+    }
+
+    PrimitiveIterator.OfInt iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * Iterate the customer ids of the orders in sorted order starting at a rank, the start is found in O(log n)
+     * @param from zero based rank of the first order
+     * @return iterator over the customer ids
+     */
+    PrimitiveIterator.OfInt iterator(int from) {
+        Cursor cursor = new Cursor();
+        short node = root;
+        int rank = from;
+        while (node != NIL) {
+            int leftSize = size(orders.left[node]);
+            if (rank < leftSize) {
+                cursor.push(node);
+                node = orders.left[node];
+            } else if (rank == leftSize) {
+                cursor.push(node);
+                break;
+            } else {
+                rank -= leftSize + 1;
+                node = orders.right[node];
+            }
+        }
+        return cursor;
+    }
+
+    private final class Cursor implements PrimitiveIterator.OfInt {
+        private short[] path = new short[32];
+        private int depth;
+
+        private void push(short node) {
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth ++] = node;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (depth == 0) {
+                throw new NoSuchElementException();
+            }
+            short next = path[-- depth];
+            for (short n = orders.right[next]; n != NIL; n = orders.left[n]) {
+                push(n);
+            }
+            return next;
+        }
+    }
+
+    private short insert(short node, short newNode) {
+        if (node == NIL) {
+            return newNode;
+        }
+        if (compare(orders.key(newNode), orders.timestamp(newNode), newNode, node) < 0) {
+            orders.left[node] = insert(orders.left[node], newNode);
+            if (orders.priority[orders.left[node]] > orders.priority[node]) {
+                node = rotateRight(node);
+            }
+        } else {
+            orders.right[node] = insert(orders.right[node], newNode);
+            if (orders.priority[orders.right[node]] > orders.priority[node]) {
+                node = rotateLeft(node);
+            }
+        }
+        return update(node);
+    }
+
+    private short delete(short node, short customerId) {
+        int cmp = compare(orders.key(customerId), orders.timestamp(customerId), customerId, node);
+        if (cmp == 0) {
+            return merge(orders.left[node], orders.right[node]);
+        }
+        if (cmp < 0) {
+            orders.left[node] = delete(orders.left[node], customerId);
+        } else {
+            orders.right[node] = delete(orders.right[node], customerId);
+        }
+        return update(node);
+    }
+
+    private int count(long key, long timestamp, short customerId, boolean inclusive) {
+        int count = 0;
+        short node = root;
+        while (node != NIL) {
+            int cmp = compare(key, timestamp, customerId, node);
+            if (cmp < 0 || cmp == 0 && !inclusive) {
+                node = orders.left[node];
+            } else {
+                count += size(orders.left[node]) + 1;
+                node = orders.right[node];
+            }
+        }
+        return count;
+    }
+
+    private short merge(short left, short right) {
+        if (left == NIL) {
+            return right;
+        }
+        if (right == NIL) {
+            return left;
+        }
+        if (orders.priority[left] > orders.priority[right]) {
+            orders.right[left] = merge(orders.right[left], right);
+            return update(left);
+        }
+        orders.left[right] = merge(left, orders.left[right]);
+        return update(right);
+    }
+
+    private short rotateRight(short node) {
+        short left = orders.left[node];
+        orders.left[node] = orders.right[left];
+        orders.right[left] = update(node);
+        return left;
+    }
+
+    private short rotateLeft(short node) {
+        short right = orders.right[node];
+        orders.right[node] = orders.left[right];
+        orders.left[right] = update(node);
+        return right;
+    }
+
+    private int compare(long key, long timestamp, short customerId, short node) {
+        int cmp = Long.compare(key, orders.key(node));
+        if (cmp == 0) {
+            cmp = Boolean.compare(!OrderTable.isPremium(customerId), !OrderTable.isPremium(node));
+        }
+        if (cmp == 0) {
+            cmp = Long.compare(timestamp, orders.timestamp(node));
+        }
+        return cmp != 0 ? cmp : Short.compare(customerId, node);
+    }
+
+    private short update(short node) {
+        orders.subtreeSize[node] = size(orders.left[node]) + size(orders.right[node]) + 1;
+        return node;
+    }
+
+    private int size(short node) {
+        return node == NIL ? 0 : orders.subtreeSize[node];
+    }
+}
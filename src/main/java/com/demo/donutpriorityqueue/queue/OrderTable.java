@@ -0,0 +1,127 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.util.Constant;
+
+import java.util.BitSet;
+
+/**
+ * Queued orders stored in parallel primitive arrays indexed directly by customer id, every customer id of the
+ * accepted range has a row. Besides the quantity, timestamp and service key of the order, a row holds the treap links
+ * of the order in the {@link OrderStatisticTree} of the queue, so the whole queue is a handful of arrays of a few
+ * hundred KB and queuing, looking up or cancelling an order allocates nothing.
+ * Not thread safe.
+ */
+class OrderTable {
+    static final short NIL = 0; // customer ids start at 1, row 0 is never used and marks a missing link
+
+    private static final int ROWS = Constant.MAX_CUSTOMER_ID + 1;
+
+    private final short[] quantities = new short[ROWS];
+    private final long[] timestamps = new long[ROWS];
+    private final long[] keys = new long[ROWS];
+    private final BitSet present = new BitSet(ROWS);
+    private int size;
+    private int premiumSize;
+    private int totalQuantity;
+
+    // treap links, maintained by OrderStatisticTree
+    final short[] left = new short[ROWS];
+    final short[] right = new short[ROWS];
+    final int[] priority = new int[ROWS];
+    final int[] subtreeSize = new int[ROWS];
+
+    /**
+     * Store the order of a customer
+     * @param customerId id of a customer within the accepted range
+     * @param quantity quantity of the order
+     * @param timestamp timestamp of the order in seconds
+     * @param key service key of the order, see {@link SchedulingPolicy}
+     * @return false if the customer already has an order
+     */
+    boolean put(short customerId, short quantity, long timestamp, long key) {
+        if (present.get(customerId)) {
+            return false;
+        }
+        present.set(customerId);
+        quantities[customerId] = quantity;
+        timestamps[customerId] = timestamp;
+        keys[customerId] = key;
+        size ++;
+        if (isPremium(customerId)) {
+            premiumSize ++;
+        }
+        totalQuantity += quantity;
+        return true;
+    }
+
+    /**
+     * Remove the order of a customer
+     * @param customerId id of a customer within the accepted range
+     * @return false if the customer has no order
+     */
+    boolean remove(short customerId) {
+        if (!present.get(customerId)) {
+            return false;
+        }
+        present.clear(customerId);
+        size --;
+        if (isPremium(customerId)) {
+            premiumSize --;
+        }
+        totalQuantity -= quantities[customerId];
+        return true;
+    }
+
+    /**
+     * Check if a customer has an order, ids outside the accepted range never have one
+     * @param customerId id of a customer
+     * @return true if the customer has an order
+     */
+    boolean contains(short customerId) {
+        return customerId >= Constant.MIN_CUSTOMER_ID && customerId <= Constant.MAX_CUSTOMER_ID &&
+                present.get(customerId);
+    }
+
+    short quantity(short customerId) {
+        return quantities[customerId];
+    }
+
+    long timestamp(short customerId) {
+        return timestamps[customerId];
+    }
+
+    long key(short customerId) {
+        return keys[customerId];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of stored orders of premium customers
+     * @return number of premium orders
+     */
+    int premiumSize() {
+        return premiumSize;
+    }
+
+    /**
+     * Get the number of donuts ordered by all the stored orders
+     * @return sum of the quantities
+     */
+    int totalQuantity() {
+        return totalQuantity;
+    }
+
+    void clear() {
+        present.clear();
+        size = 0;
+        premiumSize = 0;
+        totalQuantity = 0;
+    }
+
+    static boolean isPremium(short customerId) {
+        return customerId < Constant.PREMIUM_CUSTOMER_ID_LIMIT;
+    }
+}
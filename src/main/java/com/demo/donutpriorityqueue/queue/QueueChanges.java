@@ -0,0 +1,14 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * Which statuses the writes between two versions of the queue can have changed. Every order queued at both
+ * versions whose position is now before firstChanged moved up by dispatched positions and is delivered
+ * dispatchedCarts carts sooner, the status of every other order has to be looked up again.
+ * @param since version of the queue the changes are counted from
+ * @param version version of the queue the changes are counted up to
+ * @param dispatched number of orders taken from the head of the queue as whole carts
+ * @param dispatchedCarts number of carts taken from the head of the queue
+ * @param firstChanged zero based position from which on statuses can have changed in any other way
+ */
+public record QueueChanges(long since, long version, int dispatched, int dispatchedCarts, int firstChanged) {
+}
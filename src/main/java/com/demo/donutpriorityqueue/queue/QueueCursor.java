@@ -0,0 +1,13 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * Keyset position in the queue, orders are sorted by service key, tier, timestamp and customer id
+ * @param customerId id of a customer, also gives the tier
+ * @param timestamp timestamp of the order in seconds
+ * @param key service key of the order
+ */
+public record QueueCursor(short customerId, long timestamp, long key) {
+    public static QueueCursor of(QueueEntry queueEntry) {
+        return new QueueCursor(queueEntry.customerId(), queueEntry.timestamp(), queueEntry.key());
+    }
+}
@@ -0,0 +1,13 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * An order as seen at its place in the queue
+ * @param customerId id of a customer
+ * @param quantity quantity of the order
+ * @param timestamp timestamp of the order in seconds
+ * @param key service key of the order, see {@link SchedulingPolicy}
+ * @param position position in the queue, counting starts at 1
+ * @param waitTime wait time in minutes
+ */
+public record QueueEntry(Short customerId, Short quantity, long timestamp, long key, int position, int waitTime) {
+}
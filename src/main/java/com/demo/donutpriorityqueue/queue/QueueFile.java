@@ -0,0 +1,93 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary copy of the queue, the version of the store it was taken at and the orders in queue order, followed by a
+ * checksum of the file.
+ * It is written to a temporary file first and moved into place, so a reader finds either a complete copy or none.
+ */
+final class QueueFile {
+    // "DNUQ"
+    private static final int MAGIC = 0x444e5551;
+    private static final int FORMAT_VERSION = 2;
+    // magic, format version, version of the store, number of orders
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    // customer id, quantity, timestamp
+    private static final int ORDER_SIZE = 2 + 2 + 8;
+
+    /**
+     * Contents of a queue file
+     * @param storeVersion version of the store the copy was taken at, see OrderStore#version()
+     * @param orders orders in queue order
+     */
+    record Copy(long storeVersion, List<OrderSummary> orders) {
+    }
+
+    private QueueFile() {
+    }
+
+    /**
+     * Write orders to a file, replacing it
+     * @param path path of the file
+     * @param storeVersion version of the store the orders were taken at
+     * @param orders orders in queue order
+     * @throws IOException if the file can not be written
+     */
+    static void write(Path path, long storeVersion, List<OrderSummary> orders) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + orders.size() * ORDER_SIZE + 4);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(storeVersion).putInt(orders.size());
+        for (OrderSummary order : orders) {
+            buffer.putShort(order.getCustomerId()).putShort(order.getQuantity()).putLong(order.getTimestamp());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the orders of a file
+     * @param path path of the file
+     * @return version of the store and orders in queue order
+     * @throws IOException if the file can not be read or is not a complete queue file
+     */
+    static Copy read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < HEADER_SIZE + 4 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException(path + " is not a queue file of format " + FORMAT_VERSION);
+        }
+        long storeVersion = buffer.getLong();
+        int size = buffer.getInt();
+        if (size < 0 || buffer.capacity() != HEADER_SIZE + (long) size * ORDER_SIZE + 4) {
+            throw new IOException(path + " is truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.capacity() - 4);
+        if (buffer.getInt(buffer.capacity() - 4) != (int) crc.getValue()) {
+            throw new IOException(path + " is corrupt");
+        }
+
+        List<OrderSummary> orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i ++) {
+            orders.add(new QueuedOrder(buffer.getShort(), buffer.getShort(), buffer.getLong()));
+        }
+        return new Copy(storeVersion, orders);
+    }
+}
@@ -0,0 +1,14 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+
+import java.util.List;
+
+/**
+ * Immutable copy of the next cart at a version of the queue, the version is the ETag it is answered with. It is
+ * taken once and shared by all readers until the next write to the queue.
+ * @param version version of the queue the snapshot was taken at
+ * @param nextCart orders the cart packer chooses for the next cart
+ */
+public record QueueSnapshot(long version, List<OrderSummary> nextCart) {
+}
@@ -0,0 +1,27 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * Immutable order summary handed out by the queue, materialised from a row of the {@link OrderTable}. It carries
+ * the service key of the order, so an order taken out of the queue can be put back in its place
+ */
+@Value
+@AllArgsConstructor
+class QueuedOrder implements OrderSummary {
+    Short customerId;
+    Short quantity;
+    Long timestamp;
+    // not part of the order, an order read back from a copy of the queue has its key computed again
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    long key;
+
+    QueuedOrder(Short customerId, Short quantity, Long timestamp) {
+        this(customerId, quantity, timestamp, 0L);
+    }
+}
@@ -0,0 +1,40 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * Decides how the premium and the regular tier share the queue. Every order gets a service key when it joins the
+ * queue and keeps it until it leaves, the queue serves the lowest key first, premium orders first on equal keys and
+ * then by timestamp and customer id. As keys never change, an order moving up over time is expressed by the key it
+ * starts with and the queue never re-sorts. A key is computed without changing the clock and only committed to it
+ * once the order joined the queue, an order put back after a failed write keeps the key it had.
+ */
+public interface SchedulingPolicy {
+    /**
+     * Compute the service key of an order joining the queue, the clock is left as it is
+     * @param premium true for an order of a premium customer
+     * @param quantity quantity of the order
+     * @param timestamp timestamp of the order in seconds
+     * @param clock service clock of the queue, for policies sharing service between the tiers
+     * @return service key of the order
+     */
+    long key(boolean premium, short quantity, long timestamp, ServiceClock clock);
+
+    /**
+     * Charge the share of the tier for an order that joined the queue with a key
+     * @param premium true for an order of a premium customer
+     * @param quantity quantity of the order
+     * @param key service key of the order
+     * @param clock service clock of the queue
+     */
+    default void commit(boolean premium, short quantity, long key, ServiceClock clock) {
+    }
+
+    /**
+     * Give back the share of the tier for an order that left the queue without being served
+     * @param premium true for an order of a premium customer
+     * @param quantity quantity of the order
+     * @param key service key of the order
+     * @param clock service clock of the queue
+     */
+    default void credit(boolean premium, short quantity, long key, ServiceClock clock) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * Virtual time of a queue, the service key of the last order served from the head, and the virtual time at which
+ * each tier has used up its share so far. Only used by policies sharing service between the tiers.
+ * Not thread safe.
+ */
+public final class ServiceClock {
+    private long virtualTime;
+    private long premiumFinishTime;
+    private long regularFinishTime;
+
+    /**
+     * Get the virtual time of the queue
+     * @return service key of the last order served
+     */
+    public long virtualTime() {
+        return virtualTime;
+    }
+
+    /**
+     * Get the virtual time at which a tier has used up its share so far
+     * @param premium true for the premium tier
+     * @return finish time of the tier
+     */
+    public long finishTime(boolean premium) {
+        return premium ? premiumFinishTime : regularFinishTime;
+    }
+
+    /**
+     * Set the virtual time at which a tier has used up its share so far
+     * @param premium true for the premium tier
+     * @param finishTime finish time of the tier
+     */
+    public void finishTime(boolean premium, long finishTime) {
+        if (premium) {
+            premiumFinishTime = finishTime;
+        } else {
+            regularFinishTime = finishTime;
+        }
+    }
+
+    /**
+     * Advance the virtual time to an order served from the head of the queue
+     * @param key service key of the order
+     */
+    void served(long key) {
+        virtualTime = Math.max(virtualTime, key);
+    }
+}
@@ -0,0 +1,12 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * Every premium order is served before any regular order, a steady stream of premium orders starves the regular tier
+ */
+public class StrictPriorityPolicy implements SchedulingPolicy {
+
+    @Override
+    public long key(boolean premium, short quantity, long timestamp, ServiceClock clock) {
+        return premium ? 0 : 1;
+    }
+}
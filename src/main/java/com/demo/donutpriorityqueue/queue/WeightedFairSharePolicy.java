@@ -0,0 +1,54 @@
+package com.demo.donutpriorityqueue.queue;
+
+/**
+ * The donuts delivered are shared between the tiers by weight while both tiers have orders waiting, with weights
+ * of 3 and 1 the premium tier gets three quarters of the cart capacity. This is start-time fair queuing: an order
+ * starts at the virtual time of the queue or when the previous order of its tier finishes, whichever is later, and
+ * takes its quantity divided by the weight of its tier. The start is the key, so a tier that had no orders waiting
+ * does not build up credit. A cancelled order gives its share back to its tier only if it was the last order of
+ * the tier, the orders queued behind it keep their keys so a later order must not start before them.
+ */
+public class WeightedFairSharePolicy implements SchedulingPolicy {
+    // virtual time taken by one donut at weight 1, divisible by every weight up to 16
+    static final long DONUT_TIME = 720720;
+
+    private final int premiumWeight;
+    private final int regularWeight;
+
+    /**
+     * @param premiumWeight weight of the premium tier, at least 1
+     * @param regularWeight weight of the regular tier, at least 1
+     * @throws IllegalArgumentException exception when a weight is less than 1
+     */
+    public WeightedFairSharePolicy(int premiumWeight, int regularWeight) throws IllegalArgumentException {
+        if (premiumWeight < 1 || regularWeight < 1) {
+            throw new IllegalArgumentException(String.format("Weights %d and %d must be at least 1!",
+                    premiumWeight, regularWeight));
+        }
+        this.premiumWeight = premiumWeight;
+        this.regularWeight = regularWeight;
+    }
+
+    @Override
+    public long key(boolean premium, short quantity, long timestamp, ServiceClock clock) {
+        return Math.max(clock.virtualTime(), clock.finishTime(premium));
+    }
+
+    // an order put back keeps its earlier start, only a share that was given back is charged again
+    @Override
+    public void commit(boolean premium, short quantity, long key, ServiceClock clock) {
+        clock.finishTime(premium, Math.max(clock.finishTime(premium), key + share(premium, quantity)));
+    }
+
+    // the share of an order with orders of its tier behind it stays used, their keys already follow it
+    @Override
+    public void credit(boolean premium, short quantity, long key, ServiceClock clock) {
+        if (clock.finishTime(premium) == key + share(premium, quantity)) {
+            clock.finishTime(premium, key);
+        }
+    }
+
+    private long share(boolean premium, short quantity) {
+        return quantity * DONUT_TIME / (premium ? premiumWeight : regularWeight);
+    }
+}
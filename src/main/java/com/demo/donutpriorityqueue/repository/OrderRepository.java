@@ -1,10 +1,19 @@
 package com.demo.donutpriorityqueue.repository;
 
 import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -14,6 +23,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     void deleteByCustomerId(short customerId);
 
+    /**
+     * Delete the orders of several customers with a single statement
+     * @param customerIds ids of the customers
+     * @return number of deleted orders
+     */
+    @Modifying
+    @Query(value = "DELETE FROM donut_order WHERE customer_id IN (:customerIds)", nativeQuery = true)
+    int deleteAllByCustomerIdIn(@Param("customerIds") Collection<Short> customerIds);
+
     /**
      * Find an order by customer id
      * @param customerId id of a customer
@@ -34,4 +52,37 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @return list of order entity
      */
     List<Order> findByTimestampLessThan(long timestamp);
+
+    /**
+     * Find the summary of orders with customer id less than
+     * @param customerId id of a customer
+     * @return list of order summary
+     */
+    List<OrderSummary> findSummariesByCustomerIdLessThan(short customerId);
+
+    /**
+     * Find the summary of orders with timestamp less than
+     * @param timestamp timestamp in seconds
+     * @return list of order summary
+     */
+    List<OrderSummary> findSummariesByTimestampLessThan(long timestamp);
+
+    /**
+     * Stream the summary of all orders in queue order, premium orders first, read from the covering priority index.
+     * Rows are fetched from the database in chunks while the stream is consumed, so it must be consumed and closed
+     * inside a transaction
+     * @return stream of order summary
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT customer_id AS \"customerId\", quantity, timestamp FROM donut_order " +
+            "ORDER BY (customer_id < 1000) DESC, timestamp, customer_id", nativeQuery = true)
+    Stream<OrderSummary> streamAllSummariesInQueueOrder();
+
+    /**
+     * Read the version sequence advanced by every statement on the order table, 0 before the first one
+     * @return version of the stored orders
+     */
+    @Query(value = "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM donut_order_version_seq",
+            nativeQuery = true)
+    long findStoreVersion();
 }
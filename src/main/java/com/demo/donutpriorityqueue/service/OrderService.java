@@ -1,16 +1,24 @@
 package com.demo.donutpriorityqueue.service;
 
+import com.demo.donutpriorityqueue.dto.BulkOrderResponse;
 import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
 import com.demo.donutpriorityqueue.dto.OrderQueueDto;
 import com.demo.donutpriorityqueue.dto.OrderResponse;
 import com.demo.donutpriorityqueue.dto.UpcomingDeliveryDto;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 public interface OrderService {
     OrderResponse createOrder(CreateOrderRequest createOrderRequest);
+    BulkOrderResponse createOrders(List<CreateOrderRequest> createOrderRequests);
     void cancelOrder(Short customerId);
     OrderResponse viewOrder(Short customerId);
     OrderQueueDto viewQueue(Pageable pageable);
+    Stream<OrderResponse> exportQueue();
     UpcomingDeliveryDto viewNextDelivery();
+    UpcomingDeliveryDto dispatchNextDelivery();
+    long queueVersion();
 
 }
@@ -2,29 +2,36 @@ package com.demo.donutpriorityqueue.service;
 
 import com.demo.donutpriorityqueue.dto.*;
 import com.demo.donutpriorityqueue.entity.Order;
-import com.demo.donutpriorityqueue.repository.OrderRepository;
-import com.demo.donutpriorityqueue.util.Constant;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.metrics.OrderMetrics;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.queue.QueueCursor;
+import com.demo.donutpriorityqueue.store.OrderStore;
+import com.demo.donutpriorityqueue.util.OrderValidator;
 import com.demo.donutpriorityqueue.mapper.OrderMapper;
-import com.demo.donutpriorityqueue.util.OrderQueueUtil;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.NoResultException;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
-@Transactional
 public class OrderServiceImpl implements OrderService {
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderStore orderStore;
     @Autowired
     private OrderMapper orderMapper;
     @Autowired
-    private OrderQueueUtil orderQueueUtil;
+    private OrderQueue orderQueue;
+    @Autowired
+    private OrderMetrics orderMetrics;
 
     /**
      * Service for creating order
@@ -36,39 +43,92 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public OrderResponse createOrder(CreateOrderRequest createOrderRequest) throws EntityExistsException,
             IllegalStateException {
-        // check if the customer id exists
-        if (orderRepository.findByCustomerId(createOrderRequest.customerId()) != null) {
+        OrderValidator.validate(createOrderRequest);
+        // reserve the customer id, two concurrent requests of the same customer can not both succeed
+        if (!orderQueue.claim(createOrderRequest.customerId())) {
             throw new EntityExistsException(String.format("Customer %d has an existing order!",
                     createOrderRequest.customerId()));
         }
-        // check if the customer id is within the accepted range
-        if (createOrderRequest.customerId() > Constant.MAX_CUSTOMER_ID ||
-                createOrderRequest.customerId() < Constant.MIN_CUSTOMER_ID) {
-            throw new IllegalStateException("Invalid customer id");
+
+        Order order = new Order(createOrderRequest.customerId(), createOrderRequest.quantity());
+        try {
+            orderStore.save(order);
+        } catch (RuntimeException e) {
+            orderQueue.release(createOrderRequest.customerId());
+            throw e;
         }
-        // check if the order quantity exceeds the maximum
-        if (createOrderRequest.quantity() > Constant.CART_CAPACITY) {
-            throw new IllegalStateException(String.format("The order exceeds the maximum quantity available to buy: %d",
-                    Constant.CART_CAPACITY));
+        orderQueue.offer(order);
+        OrderResponse orderResponse = orderMapper.orderToOrderResponse(order);
+        orderMetrics.recordWaitTime(orderResponse.waitTime());
+        return orderResponse;
+    }
+
+    /**
+     * Service for creating a batch of orders, the requests are validated and the customer ids claimed in memory,
+     * the accepted orders are stored in one batch. Rejected items are counted like rejected single orders
+     * @param createOrderRequests the dto for creating every order
+     * @return the result of every order in request order
+     */
+    @Override
+    public BulkOrderResponse createOrders(List<CreateOrderRequest> createOrderRequests) {
+        List<BulkOrderItemResponse> orderResults = new ArrayList<>(createOrderRequests.size());
+        List<Order> orders = new ArrayList<>(createOrderRequests.size());
+
+        for (CreateOrderRequest createOrderRequest : createOrderRequests) {
+            try {
+                OrderValidator.validate(createOrderRequest);
+            } catch (IllegalStateException e) {
+                orderMetrics.countError(HttpStatus.BAD_REQUEST);
+                orderResults.add(new BulkOrderItemResponse(createOrderRequest.customerId(),
+                        createOrderRequest.quantity(), HttpStatus.BAD_REQUEST, e.getMessage()));
+                continue;
+            }
+            // claim the customer id, fails if the customer has an order or appears earlier in the batch
+            if (!orderQueue.claim(createOrderRequest.customerId())) {
+                orderMetrics.countError(HttpStatus.CONFLICT);
+                orderResults.add(new BulkOrderItemResponse(createOrderRequest.customerId(),
+                        createOrderRequest.quantity(), HttpStatus.CONFLICT,
+                        String.format("Customer %d has an existing order!", createOrderRequest.customerId())));
+                continue;
+            }
+
+            orders.add(new Order(createOrderRequest.customerId(), createOrderRequest.quantity()));
+            orderResults.add(new BulkOrderItemResponse(createOrderRequest.customerId(),
+                    createOrderRequest.quantity(), HttpStatus.CREATED, null));
         }
 
-        Order order = new Order(createOrderRequest.customerId(), createOrderRequest.quantity());
-        return orderMapper.orderToOrderResponse(orderRepository.save(order));
+        try {
+            orderStore.saveAll(orders);
+        } catch (RuntimeException e) {
+            orders.forEach(order -> orderQueue.release(order.getCustomerId()));
+            throw e;
+        }
+        orders.forEach(orderQueue::offer);
+        return new BulkOrderResponse(orderResults);
     }
 
     /**
-     * Service for cancelling order
+     * Service for cancelling order, the order is taken out of the queue first so the existence check
+     * needs no database round-trip
      * @param customerId id of a customer
      * @throws NoResultException exception when order does not exist with the customer id
      */
     @Override
     public void cancelOrder(Short customerId) throws NoResultException {
+        OrderSummary order = orderQueue.cancel(customerId);
         // check if the customer id exists
-        if (orderRepository.findByCustomerId(customerId) == null) {
+        if (order == null) {
             throw new NoResultException(String.format("No order had been created by customer %d!", customerId));
         }
 
-        orderRepository.deleteByCustomerId(customerId);
+        try {
+            orderStore.delete(customerId);
+        } catch (RuntimeException e) {
+            // put the order back in its place so it is not lost from the queue
+            orderQueue.restore(order);
+            throw e;
+        }
+        orderQueue.release(customerId);
     }
 
     /**
@@ -79,12 +139,15 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public OrderResponse viewOrder(Short customerId) throws NoResultException {
+        // the response is built straight from the queue, it is the only object a status poll allocates
+        OrderResponse orderResponse = orderQueue.status(customerId, OrderResponse::new);
         // check if the customer id exists
-        if (orderRepository.findByCustomerId(customerId) == null) {
+        if (orderResponse == null) {
             throw new NoResultException(String.format("No order had been created by customer %d!", customerId));
         }
 
-        return orderMapper.orderToOrderResponse(orderRepository.findByCustomerId(customerId));
+        orderMetrics.recordWaitTime(orderResponse.waitTime());
+        return orderResponse;
     }
 
     /**
@@ -94,12 +157,23 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public OrderQueueDto viewQueue(Pageable pageable) {
-        List<Order> orderQueue = orderQueueUtil.getOrderQueue();
-        List<OrderResponse> queuedOrderResponses = orderQueue.stream()
-                .map(orderMapper::orderToOrderResponse).toList();
+        return orderMapper.queueEntryPageToOrderQueueDto(orderQueue.page(pageable));
 
-        return orderMapper.orderResponseListToOrderQueueDto(queuedOrderResponses, pageable);
+    }
 
+    /**
+     * Service for exporting the whole order queue, the queue is read in chunks following a keyset cursor
+     * so only one chunk is held in memory at a time
+     * @return lazy stream of the response dto for every queued order in priority order
+     */
+    @Override
+    public Stream<OrderResponse> exportQueue() {
+        return Stream.iterate(orderQueue.entriesAfter(null, EXPORT_CHUNK_SIZE),
+                        chunk -> !chunk.isEmpty(),
+                        chunk -> orderQueue.entriesAfter(QueueCursor.of(chunk.get(chunk.size() - 1)),
+                                EXPORT_CHUNK_SIZE))
+                .flatMap(List::stream)
+                .map(orderMapper::queueEntryToOrderResponse);
     }
 
     /**
@@ -108,19 +182,50 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public UpcomingDeliveryDto viewNextDelivery() {
-        List<Order> orderQueue = orderQueueUtil.getOrderQueue();
+        return toUpcomingDeliveryDto(orderQueue.nextCart());
+    }
+
+    /**
+     * Service for dispatching the next delivery, the orders of the cart are removed from the queue and
+     * deleted in one batch
+     * @return the dto for the dispatched delivery
+     */
+    @Override
+    public UpcomingDeliveryDto dispatchNextDelivery() {
+        List<OrderSummary> cart = orderQueue.pollNextCart();
+        if (cart.isEmpty()) {
+            return new UpcomingDeliveryDto(List.of());
+        }
+
+        try {
+            orderStore.deleteAll(cart.stream().map(OrderSummary::getCustomerId).toList());
+        } catch (RuntimeException e) {
+            // put the cart back in its place so the orders are not lost from the queue
+            orderQueue.restoreCart(cart);
+            throw e;
+        }
+        for (OrderSummary order : cart) {
+            orderQueue.release(order.getCustomerId());
+            orderMetrics.recordDispatch(order.getTimestamp());
+        }
+        orderMetrics.recordCart(cart.stream().mapToInt(OrderSummary::getQuantity).sum());
+
+        return toUpcomingDeliveryDto(cart);
+    }
 
-        int cartCapacity = Constant.CART_CAPACITY;
+    /**
+     * Service for getting the version of the order queue, used to answer conditional requests
+     * @return version of the order queue
+     */
+    @Override
+    public long queueVersion() {
+        return orderQueue.version();
+    }
+
+    private UpcomingDeliveryDto toUpcomingDeliveryDto(List<OrderSummary> cart) {
         List<OrderDeliveryDto> deliveryList = new ArrayList<>();
-        for (Order order : orderQueue) {
-            // if cart has capacity for the order
-            if (order.getQuantity() < cartCapacity) {
-                // add order to the cart
-                deliveryList.add(new OrderDeliveryDto(order.getCustomerId(), order.getQuantity()));
-                cartCapacity -= order.getQuantity();
-            } else {
-                break; // give up the order
-            }
+        for (OrderSummary order : cart) {
+            deliveryList.add(new OrderDeliveryDto(order.getCustomerId(), order.getQuantity()));
         }
 
         return new UpcomingDeliveryDto(deliveryList);
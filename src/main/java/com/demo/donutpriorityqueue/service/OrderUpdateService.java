@@ -0,0 +1,8 @@
+package com.demo.donutpriorityqueue.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface OrderUpdateService {
+    SseEmitter subscribe(Short customerId);
+
+}
@@ -0,0 +1,191 @@
+package com.demo.donutpriorityqueue.service;
+
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.queue.QueueChanges;
+import com.demo.donutpriorityqueue.util.Constant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.NoResultException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the status of an order to its subscribers as server-sent events. Changes are not pushed per write to the
+ * queue: once per {@link #UPDATE_INTERVAL}, if the queue version moved, the {@link QueueChanges} since the last
+ * interval tell which subscribed customers can have a new status. Orders ahead of every insert and cancel keep
+ * their status, or move up by the carts dispatched from the head, so only the others are looked up in the queue,
+ * and a status is sent only if the position or the wait time changed. A customer whose previous update is still
+ * being sent is skipped until the next interval, so a slow client gets the latest status instead of a backlog.
+ */
+@Service
+public class OrderUpdateServiceImpl implements OrderUpdateService {
+    private static final Duration UPDATE_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration EMITTER_TIMEOUT = Duration.ofMinutes(30);
+    private static final int SENDER_THREADS = 4;
+    private static final String STATUS_EVENT = "status";
+    private static final String REMOVED_EVENT = "removed"; // the order was dispatched or cancelled
+    private static final long UNKNOWN_VERSION = -1;
+
+    @Autowired
+    private OrderQueue orderQueue;
+
+    private final Map<Short, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService sender = Executors.newFixedThreadPool(SENDER_THREADS);
+    private long publishedVersion;
+    private boolean behind; // a subscriber was skipped, look again even if the version did not move
+
+    @PostConstruct
+    public void start() {
+        ticker.scheduleWithFixedDelay(this::publishChanges, UPDATE_INTERVAL.toMillis(), UPDATE_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        sender.shutdownNow();
+        subscriptions.values().forEach(subscription -> subscription.emitters.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Service for subscribing to the status of an order, the current status is sent right away
+     * @param customerId id of a customer
+     * @return the emitter of the status events
+     * @throws NoResultException exception when order does not exist with the customer id
+     */
+    @Override
+    public SseEmitter subscribe(Short customerId) throws NoResultException {
+        long version = orderQueue.version();
+        OrderResponse orderResponse = orderQueue.status(customerId, OrderResponse::new);
+        if (orderResponse == null) {
+            throw new NoResultException(String.format("No order had been created by customer %d!", customerId));
+        }
+        long statusVersion = orderQueue.version() == version ? version : UNKNOWN_VERSION;
+
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT.toMillis());
+        subscriptions.compute(customerId, (id, subscription) -> {
+            subscription = subscription == null ? new Subscription(orderResponse, statusVersion) : subscription;
+            subscription.emitters.add(emitter);
+            return subscription;
+        });
+        emitter.onCompletion(() -> unsubscribe(customerId, emitter));
+        emitter.onTimeout(() -> unsubscribe(customerId, emitter));
+        emitter.onError(e -> unsubscribe(customerId, emitter));
+        send(customerId, emitter, orderResponse);
+        return emitter;
+    }
+
+    /**
+     * Send the status of every subscribed customer whose position or wait time changed since the last update
+     */
+    void publishChanges() {
+        if (orderQueue.version() == publishedVersion && !behind) {
+            return;
+        }
+        QueueChanges changes = orderQueue.takeChanges();
+        publishedVersion = changes.version();
+        behind = false;
+
+        subscriptions.forEach((customerId, subscription) -> {
+            if (!subscription.sending.compareAndSet(false, true)) {
+                behind = true;
+                return;
+            }
+            OrderResponse orderResponse = status(customerId, subscription, changes);
+            if (orderResponse != null && orderResponse.equals(subscription.lastSent)) {
+                subscription.sending.set(false);
+                return;
+            }
+            subscription.lastSent = orderResponse;
+            sender.execute(() -> {
+                try {
+                    publish(customerId, subscription.emitters, orderResponse);
+                } finally {
+                    subscription.sending.set(false);
+                }
+            });
+        });
+    }
+
+    // the last status moves up by the dispatched carts if it was exact at the version the changes start from and
+    // lies ahead of every other change, otherwise it is looked up, which is exact unless the queue moved on meanwhile
+    private OrderResponse status(Short customerId, Subscription subscription, QueueChanges changes) {
+        OrderResponse lastSent = subscription.lastSent;
+        if (lastSent != null && subscription.version == changes.since()) {
+            int position = lastSent.position() - changes.dispatched();
+            if (position >= 1 && position - 1 < changes.firstChanged()) {
+                subscription.version = changes.version();
+                return changes.dispatched() == 0 ? lastSent : new OrderResponse(customerId, lastSent.quantity(),
+                        position, lastSent.waitTime() - Constant.DELIVERY_TIME * changes.dispatchedCarts());
+            }
+        }
+        OrderResponse orderResponse = orderQueue.status(customerId, OrderResponse::new);
+        subscription.version = orderQueue.version() == changes.version() ? changes.version() : UNKNOWN_VERSION;
+        return orderResponse;
+    }
+
+    int subscriptionCount() {
+        return subscriptions.size();
+    }
+
+    private void publish(Short customerId, List<SseEmitter> emitters, OrderResponse orderResponse) {
+        if (orderResponse == null) {
+            subscriptions.remove(customerId);
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().name(REMOVED_EVENT).data(customerId));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+            return;
+        }
+        emitters.forEach(emitter -> send(customerId, emitter, orderResponse));
+    }
+
+    private void send(Short customerId, SseEmitter emitter, OrderResponse orderResponse) {
+        try {
+            emitter.send(SseEmitter.event().name(STATUS_EVENT).data(orderResponse));
+        } catch (IOException | IllegalStateException e) {
+            // the client went away, the error callback unsubscribes it
+            emitter.completeWithError(e);
+            unsubscribe(customerId, emitter);
+        }
+    }
+
+    private void unsubscribe(Short customerId, SseEmitter emitter) {
+        subscriptions.computeIfPresent(customerId, (id, subscription) -> {
+            subscription.emitters.remove(emitter);
+            return subscription.emitters.isEmpty() ? null : subscription;
+        });
+    }
+
+    private static class Subscription {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile OrderResponse lastSent;
+        // version of the queue lastSent is exact at
+        private volatile long version;
+
+        private Subscription(OrderResponse lastSent, long version) {
+            this.lastSent = lastSent;
+            this.version = version;
+        }
+    }
+}
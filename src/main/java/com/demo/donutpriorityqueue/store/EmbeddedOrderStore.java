@@ -0,0 +1,216 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.store.OrderJournal.Entry;
+import com.demo.donutpriorityqueue.util.Constant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Order store without a database. The orders live in a memory-mapped snapshot file with a fixed slot per customer
+ * id, so opening it needs neither a schema nor a full read. Every write is forced to an {@link OrderJournal}, the
+ * write-ahead log, before it is applied to the mapped slots. Once the log reaches {@link #CHECKPOINT_SIZE} the
+ * snapshot is forced to disk and the log emptied, on startup the log is replayed onto the snapshot.
+ */
+@Slf4j
+@Component
+@Profile("embedded")
+public class EmbeddedOrderStore implements OrderStore {
+    // "DNUT"
+    static final int MAGIC = 0x444e5554;
+    static final int FORMAT_VERSION = 2;
+    static final long CHECKPOINT_SIZE = 1 << 20;
+    // magic, format version, number of slots, writes applied up to the last checkpoint
+    private static final int HEADER_SIZE = 16;
+    private static final int WRITES_OFFSET = 12;
+    // occupied flag, quantity, timestamp
+    private static final int SLOT_SIZE = 1 + 2 + 8;
+    private static final byte FREE = 0;
+    private static final byte OCCUPIED = 1;
+    private static final int SLOTS = Constant.MAX_CUSTOMER_ID + 1;
+    private static final Comparator<OrderSummary> QUEUE_ORDER = Comparator
+            .comparing((OrderSummary order) -> order.getCustomerId() >= Constant.PREMIUM_CUSTOMER_ID_LIMIT)
+            .thenComparing(OrderSummary::getTimestamp)
+            .thenComparing(OrderSummary::getCustomerId);
+
+    @Value("${donut.store.snapshot:data/order.snapshot}")
+    private String snapshotPath;
+    @Value("${donut.store.journal:data/order.journal}")
+    private String journalPath;
+
+    private FileChannel snapshotChannel;
+    private MappedByteBuffer snapshot;
+    private OrderJournal journal;
+    // writes applied to the slots, the version of the store, wraps around after 2^32 writes
+    private final AtomicInteger writes = new AtomicInteger();
+    // writes share the read lock, a checkpoint takes the write lock
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    /**
+     * Map the snapshot and replay the write-ahead log onto it
+     * @throws IOException if the files can not be opened
+     * @throws IllegalStateException if the snapshot was written in another format
+     */
+    @PostConstruct
+    public void open() throws IOException, IllegalStateException {
+        Path path = Path.of(snapshotPath);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        snapshotChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        snapshot = snapshotChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) SLOT_SIZE * SLOTS);
+        if (snapshot.getInt(0) == 0) {
+            snapshot.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, SLOTS);
+        } else if (snapshot.getInt(0) != MAGIC || snapshot.getInt(4) != FORMAT_VERSION
+                || snapshot.getInt(8) != SLOTS) {
+            throw new IllegalStateException(String.format("%s is not an order snapshot of format %d with %d slots!",
+                    path, FORMAT_VERSION, SLOTS));
+        }
+
+        writes.set(snapshot.getInt(WRITES_OFFSET));
+
+        journal = new OrderJournal(Path.of(journalPath));
+        journal.replay(this::apply);
+        checkpoint();
+    }
+
+    /**
+     * Force the snapshot to disk and close the files
+     * @throws IOException if the files can not be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        checkpoint();
+        journal.close();
+        snapshotChannel.close();
+    }
+
+    @Override
+    public void save(Order order) {
+        write(List.of(Entry.save(order)));
+    }
+
+    @Override
+    public void saveAll(List<Order> orders) {
+        write(orders.stream().map(Entry::save).toList());
+    }
+
+    @Override
+    public void delete(short customerId) {
+        write(List.of(Entry.delete(customerId)));
+    }
+
+    @Override
+    public void deleteAll(List<Short> customerIds) {
+        write(customerIds.stream().map(Entry::delete).toList());
+    }
+
+    /**
+     * Read the occupied slots of the snapshot and sort them in queue order
+     * @param consumer called with every order
+     */
+    @Override
+    public void load(Consumer<OrderSummary> consumer) {
+        List<OrderSummary> orders = readSlots();
+        orders.sort(QUEUE_ORDER);
+        orders.forEach(consumer);
+    }
+
+    /**
+     * Count the writes applied to the slots. Writes replayed from the log after a crash are counted again, which
+     * only makes the version move further
+     * @return version of the stored orders
+     */
+    @Override
+    public long version() {
+        return Integer.toUnsignedLong(writes.get());
+    }
+
+    private void write(List<Entry> entries) {
+        checkpointLock.readLock().lock();
+        try {
+            journal.sync(journal.append(entries));
+            // every customer has its own slot and concurrent writes never share a customer
+            entries.forEach(this::apply);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+
+        if (journal.size() >= CHECKPOINT_SIZE) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                // the write is in the log, the next checkpoint forces it again
+                log.warn("Checkpoint of the order snapshot failed", e);
+            }
+        }
+    }
+
+    private List<OrderSummary> readSlots() {
+        List<OrderSummary> orders = new ArrayList<>();
+        checkpointLock.writeLock().lock();
+        try {
+            for (int customerId = 0; customerId < SLOTS; customerId ++) {
+                int offset = offset((short) customerId);
+                if (snapshot.get(offset) == OCCUPIED) {
+                    orders.add(new Order((short) customerId, snapshot.getShort(offset + 1),
+                            snapshot.getLong(offset + 3)));
+                }
+            }
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+        return orders;
+    }
+
+    private void apply(Entry entry) {
+        int offset = offset(entry.customerId());
+        if (entry.type() == OrderJournal.SAVE) {
+            snapshot.put(offset, OCCUPIED).putShort(offset + 1, entry.quantity())
+                    .putLong(offset + 3, entry.timestamp());
+        } else {
+            snapshot.put(offset, FREE).putShort(offset + 1, (short) 0).putLong(offset + 3, 0L);
+        }
+        writes.incrementAndGet();
+    }
+
+    // the log is only emptied once the snapshot holds everything it recorded
+    private void checkpoint() throws IOException {
+        checkpointLock.writeLock().lock();
+        try {
+            snapshot.putInt(WRITES_OFFSET, writes.get());
+            snapshot.force();
+            journal.truncateIf(() -> true);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    private static int offset(short customerId) {
+        return HEADER_SIZE + customerId * SLOT_SIZE;
+    }
+}
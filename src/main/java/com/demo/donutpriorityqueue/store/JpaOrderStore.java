@@ -0,0 +1,81 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.repository.OrderRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Order store writing straight to the database, every write is one transaction
+ */
+@Component
+@Profile("!embedded")
+@Transactional
+public class JpaOrderStore implements OrderStore {
+    @Autowired
+    private OrderRepository orderRepository;
+
+    /**
+     * Insert a new order
+     * @param order order entity
+     */
+    @Override
+    public void save(Order order) {
+        orderRepository.save(order);
+    }
+
+    /**
+     * Insert a batch of new orders in one transaction
+     * @param orders order entities
+     */
+    @Override
+    public void saveAll(List<Order> orders) {
+        orderRepository.saveAll(orders);
+    }
+
+    /**
+     * Delete the order of a customer with a single statement, without loading it first
+     * @param customerId id of a customer
+     */
+    @Override
+    public void delete(short customerId) {
+        orderRepository.deleteAllByCustomerIdIn(List.of(customerId));
+    }
+
+    /**
+     * Delete the orders of several customers with a single statement
+     * @param customerIds ids of the customers
+     */
+    @Override
+    public void deleteAll(List<Short> customerIds) {
+        orderRepository.deleteAllByCustomerIdIn(customerIds);
+    }
+
+    /**
+     * Stream every order in queue order from the covering priority index, the cursor stays open
+     * inside the transaction of the call
+     * @param consumer called with every order
+     */
+    @Override
+    public void load(Consumer<OrderSummary> consumer) {
+        try (Stream<OrderSummary> summaries = orderRepository.streamAllSummariesInQueueOrder()) {
+            summaries.forEach(consumer);
+        }
+    }
+
+    /**
+     * Read the version sequence every statement on the order table advances, see schema-postgresql.sql
+     * @return version of the stored orders
+     */
+    @Override
+    public long version() {
+        return orderRepository.findStoreVersion();
+    }
+}
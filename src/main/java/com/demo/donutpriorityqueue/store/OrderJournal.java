@@ -0,0 +1,246 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only file of order writes. Entries have a fixed size and carry a checksum, a torn entry at the end of
+ * the file left by a crash is cut off when the journal is opened.
+ * Appends are serialised, {@link #sync(long)} forces the file to disk once for every thread waiting at the time
+ * (group commit). Positions are logical and keep growing across {@link #truncateIf(BooleanSupplier)}.
+ * Locks are held across file writes and forces, they are not monitors so a waiting virtual thread does not pin
+ * its carrier thread.
+ */
+class OrderJournal implements Closeable {
+    static final byte SAVE = 1;
+    static final byte DELETE = 2;
+    static final byte UNDO = 3;
+    // type, customer id, quantity, timestamp, checksum
+    static final int ENTRY_SIZE = 1 + 2 + 2 + 8 + 4;
+
+    /**
+     * A journaled write, the quantity and the timestamp of a delete are 0. An undo takes back the last earlier write
+     * of its customer, it is journaled for a write which could not be forced and was reported as failed
+     */
+    record Entry(byte type, short customerId, short quantity, long timestamp) implements OrderSummary {
+        static Entry save(OrderSummary order) {
+            return new Entry(SAVE, order.getCustomerId(), order.getQuantity(), order.getTimestamp());
+        }
+
+        static Entry delete(short customerId) {
+            return new Entry(DELETE, customerId, (short) 0, 0L);
+        }
+
+        static Entry undo(short customerId) {
+            return new Entry(UNDO, customerId, (short) 0, 0L);
+        }
+
+        @Override
+        public Short getCustomerId() {
+            return customerId;
+        }
+
+        @Override
+        public Short getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public Long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Lock fileLock = new ReentrantLock();
+    private final Lock syncLock = new ReentrantLock();
+    // logical position of the start of the file, guarded by fileLock
+    private long base;
+    // end of the last entry within the file, guarded by fileLock
+    private long fileEnd;
+    private volatile long synced;
+
+    /**
+     * Open or create the journal, cutting off a torn entry at its end
+     * @param path path of the journal file, missing parent directories are created
+     * @throws IOException if the file can not be opened
+     */
+    OrderJournal(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        fileEnd = scan(null);
+        if (fileEnd < channel.size()) {
+            channel.truncate(fileEnd);
+            channel.force(true);
+        }
+        synced = fileEnd;
+    }
+
+    /**
+     * Append entries, they are only durable after {@link #sync(long)}. If the write fails the file is cut back to
+     * the entries before
+     * @param entries entries in write order
+     * @return logical position after the last entry
+     * @throws IOException if the write failed
+     */
+    long append(List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * ENTRY_SIZE);
+        CRC32C crc = new CRC32C();
+        for (Entry entry : entries) {
+            int start = buffer.position();
+            buffer.put(entry.type()).putShort(entry.customerId()).putShort(entry.quantity()).putLong(entry.timestamp());
+            crc.reset();
+            crc.update(buffer.array(), start, ENTRY_SIZE - 4);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+
+        fileLock.lock();
+        try {
+            long offset = fileEnd;
+            try {
+                while (buffer.hasRemaining()) {
+                    offset += channel.write(buffer, offset);
+                }
+            } catch (IOException e) {
+                try {
+                    channel.truncate(fileEnd);
+                } catch (IOException truncateFailure) {
+                    e.addSuppressed(truncateFailure);
+                }
+                throw e;
+            }
+            fileEnd = offset;
+            return base + fileEnd;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Force the journal to disk up to a position, a thread that finds its entries forced by another thread
+     * returns without a write of its own
+     * @param position logical position returned by {@link #append(List)}
+     * @throws IOException if the file could not be forced
+     */
+    void sync(long position) throws IOException {
+        if (synced >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= position) {
+                return;
+            }
+            long end;
+            fileLock.lock();
+            try {
+                end = base + fileEnd;
+            } finally {
+                fileLock.unlock();
+            }
+            channel.force(false);
+            synced = end;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Read every entry in write order
+     * @param consumer called with every entry
+     * @throws IOException if the file could not be read
+     */
+    void replay(Consumer<Entry> consumer) throws IOException {
+        fileLock.lock();
+        try {
+            scan(consumer);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Empty the journal, atomically with respect to appends
+     * @param condition checked before, the journal is kept if false
+     * @return true if the journal was emptied
+     * @throws IOException if the file could not be truncated
+     */
+    boolean truncateIf(BooleanSupplier condition) throws IOException {
+        fileLock.lock();
+        try {
+            if (fileEnd == 0 || !condition.getAsBoolean()) {
+                return false;
+            }
+            channel.truncate(0);
+            base += fileEnd;
+            fileEnd = 0;
+            return true;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * @return size of the journal file in bytes
+     */
+    long size() {
+        fileLock.lock();
+        try {
+            return fileEnd;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // reads the valid entries from the start of the file, returns the end of the last one
+    private long scan(Consumer<Entry> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE * 1024);
+        CRC32C crc = new CRC32C();
+        long offset = 0;
+        long valid = 0;
+        int read;
+        while ((read = channel.read(buffer, offset)) > 0) {
+            offset += read;
+            buffer.flip();
+            while (buffer.remaining() >= ENTRY_SIZE) {
+                int start = buffer.position();
+                crc.reset();
+                crc.update(buffer.array(), start, ENTRY_SIZE - 4);
+                Entry entry = new Entry(buffer.get(), buffer.getShort(), buffer.getShort(), buffer.getLong());
+                if (buffer.getInt() != (int) crc.getValue() || (entry.type() != SAVE && entry.type() != DELETE
+                        && entry.type() != UNDO)) {
+                    return valid;
+                }
+                valid += ENTRY_SIZE;
+                if (consumer != null) {
+                    consumer.accept(entry);
+                }
+            }
+            buffer.compact();
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,51 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Durable storage of the open orders behind the in-memory queue, the queue is rebuilt from it on startup.
+ * A write is durable once the call returned, it is not necessarily in the database yet.
+ */
+public interface OrderStore {
+    /**
+     * Persist a new order
+     * @param order order entity
+     */
+    void save(Order order);
+
+    /**
+     * Persist a batch of new orders, either all or none of them
+     * @param orders order entities
+     */
+    void saveAll(List<Order> orders);
+
+    /**
+     * Delete the order of a customer
+     * @param customerId id of a customer
+     */
+    void delete(short customerId);
+
+    /**
+     * Delete the orders of several customers, either all or none of them
+     * @param customerIds ids of the customers
+     */
+    void deleteAll(List<Short> customerIds);
+
+    /**
+     * Read every stored order in queue order, premium orders first
+     * @param consumer called with every order
+     */
+    void load(Consumer<OrderSummary> consumer);
+
+    /**
+     * Get the version of the stored orders, which tells whether a copy of the queue is still current. It changes
+     * with every write and is read without looking at the orders. A write which did not take effect may change
+     * it as well
+     * @return version of the stored orders
+     */
+    long version();
+}
@@ -0,0 +1,415 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.store.OrderJournal.Entry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Order store acknowledging a write once it is forced to a local {@link OrderJournal}, a background writer
+ * flushes the journaled writes to the database in batches, one transaction per batch, and retries a failed batch
+ * with a growing delay. After {@link #MAX_ATTEMPTS} failed attempts the batch is flushed write by write, a write the
+ * database rejects on its own is set aside in a second journal next to the first so the writes after it go on.
+ * The journal is emptied whenever every write is flushed or set aside. Writes not flushed before a crash are
+ * replayed from the journal when the store is started, the replay compares against the database so it can be
+ * repeated, and sets aside a write the database rejects like the writer does.
+ * The writes of one customer are flushed in order, the queue only accepts a cancel after the create was
+ * acknowledged.
+ */
+@Slf4j
+@Primary
+@Component
+@Profile("!embedded")
+@ConditionalOnProperty(name = "donut.store.write-behind", havingValue = "true")
+public class WriteBehindOrderStore implements OrderStore {
+    static final int BATCH_SIZE = 500;
+    static final int MAX_ATTEMPTS = 5;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+
+    @Autowired
+    private JpaOrderStore jpaOrderStore;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Value("${donut.store.journal:data/order.journal}")
+    private String journalPath;
+
+    private OrderJournal journal;
+    // writes the database rejected, kept for inspection and never replayed
+    private OrderJournal rejectedJournal;
+    private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<>();
+    // journaled writes not yet committed to the database, counted before they are appended
+    private final AtomicInteger unflushed = new AtomicInteger();
+    private final Lock flushLock = new ReentrantLock();
+    // the batch being flushed, guarded by flushLock
+    private final List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Open the journal, replay it against the database and start the background writer
+     * @throws IOException if the journal can not be opened
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new OrderJournal(Path.of(journalPath));
+        rejectedJournal = new OrderJournal(Path.of(journalPath + ".rejected"));
+        replay();
+        running = true;
+        writer = new Thread(this::writeBehind, "order-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the background writer and flush what is left, anything that can not be flushed stays in the journal
+     * @throws IOException if the journal can not be closed
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flushPending();
+        } catch (RuntimeException e) {
+            log.warn("{} journaled order writes are left for the replay on startup", unflushed.get(), e);
+        }
+        journal.close();
+        rejectedJournal.close();
+    }
+
+    @Override
+    public void save(Order order) {
+        write(List.of(Entry.save(order)));
+    }
+
+    @Override
+    public void saveAll(List<Order> orders) {
+        write(orders.stream().map(Entry::save).toList());
+    }
+
+    @Override
+    public void delete(short customerId) {
+        write(List.of(Entry.delete(customerId)));
+    }
+
+    @Override
+    public void deleteAll(List<Short> customerIds) {
+        write(customerIds.stream().map(Entry::delete).toList());
+    }
+
+    /**
+     * Flush every pending write, then read the orders from the database. Like the rebuild of the queue it is not
+     * meant to run concurrently with writes
+     * @param consumer called with every order
+     */
+    @Override
+    public void load(Consumer<OrderSummary> consumer) {
+        flush();
+        jpaOrderStore.load(consumer);
+    }
+
+    /**
+     * Flush every pending write, then read the version of the database
+     * @return version of the stored orders
+     */
+    @Override
+    public long version() {
+        flush();
+        return jpaOrderStore.version();
+    }
+
+    /**
+     * @return number of journaled writes not yet committed to the database
+     */
+    int unflushed() {
+        return unflushed.get();
+    }
+
+    // acknowledged once forced to the journal, only then handed to the writer. Entries which were appended but
+    // could not be forced may still reach the disk, they are taken back so the replay does not apply a failed write
+    private void write(List<Entry> entries) {
+        unflushed.addAndGet(entries.size());
+        try {
+            long position = journal.append(entries);
+            try {
+                journal.sync(position);
+            } catch (IOException e) {
+                undo(entries, e);
+                throw e;
+            }
+        } catch (IOException e) {
+            unflushed.addAndGet(-entries.size());
+            throw new UncheckedIOException(e);
+        }
+        pending.addAll(entries);
+    }
+
+    private void undo(List<Entry> entries, IOException cause) {
+        try {
+            journal.sync(journal.append(entries.stream().map(entry -> Entry.undo(entry.customerId())).toList()));
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            log.error("Taking back {} order writes which could not be journaled failed", entries.size(), e);
+        }
+    }
+
+    private void writeBehind() {
+        long retryDelay = 0;
+        int attempts = 0;
+        while (running) {
+            try {
+                Entry first = pending.poll(100, TimeUnit.MILLISECONDS);
+                flushLock.lock();
+                try {
+                    if (first != null) {
+                        batch.add(first);
+                    }
+                    flushPending();
+                    retryDelay = 0;
+                    attempts = 0;
+                } catch (RuntimeException e) {
+                    if (++ attempts >= MAX_ATTEMPTS) {
+                        attempts = 0;
+                        flushSeparately();
+                    }
+                    if (batch.isEmpty()) {
+                        retryDelay = 0;
+                    } else {
+                        retryDelay = Math.min(Math.max(retryDelay * 2, 100), MAX_RETRY_DELAY_MILLIS);
+                        log.warn("Flushing {} journaled order writes failed, retrying in {} ms", batch.size(),
+                                retryDelay, e);
+                    }
+                } finally {
+                    flushLock.unlock();
+                }
+                if (retryDelay > 0) {
+                    TimeUnit.MILLISECONDS.sleep(retryDelay);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush() {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // a failed batch is kept and sent again first, so the writes of a customer are never reordered
+    private void flushPending() {
+        while (true) {
+            pending.drainTo(batch, BATCH_SIZE - batch.size());
+            if (batch.isEmpty()) {
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    // every write of the failed batch in a transaction of its own, a write the database rejects is set aside,
+    // any other failure keeps the write and the ones after it in the batch
+    private void flushSeparately() {
+        Iterator<Entry> entries = batch.iterator();
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            try {
+                flush(List.of(entry));
+            } catch (RuntimeException e) {
+                if (!isRejection(e) || !setAside(entry, e)) {
+                    return;
+                }
+                unflushed.decrementAndGet();
+                truncateJournal();
+            }
+            entries.remove();
+        }
+    }
+
+    // the database refused the write itself, unlike a lost connection retrying it can never succeed
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    private boolean setAside(Entry entry, RuntimeException cause) {
+        try {
+            rejectedJournal.sync(rejectedJournal.append(List.of(entry)));
+        } catch (IOException e) {
+            log.warn("Setting aside the rejected write of customer {} failed", entry.customerId(), e);
+            return false;
+        }
+        log.error("Write of customer {} rejected by the database, set aside in {}.rejected", entry.customerId(),
+                journalPath, cause);
+        return true;
+    }
+
+    /**
+     * @return the writes set aside because the database rejected them, in write order
+     * @throws IOException if the journal of rejected writes can not be read
+     */
+    List<Entry> rejectedWrites() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        rejectedJournal.replay(entries::add);
+        return entries;
+    }
+
+    // a batch is one transaction, consecutive writes of the same type are sent as one statement
+    private void flush(List<Entry> writes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int from = 0;
+            for (int i = 1; i <= writes.size(); i ++) {
+                if (i == writes.size() || writes.get(i).type() != writes.get(from).type()) {
+                    apply(writes.subList(from, i));
+                    from = i;
+                }
+            }
+        });
+        unflushed.addAndGet(-writes.size());
+        truncateJournal();
+    }
+
+    private void apply(List<Entry> entries) {
+        if (entries.get(0).type() == OrderJournal.SAVE) {
+            jpaOrderStore.saveAll(entries.stream()
+                    .map(entry -> new Order(entry.customerId(), entry.quantity(), entry.timestamp()))
+                    .toList());
+        } else {
+            jpaOrderStore.deleteAll(entries.stream().map(Entry::customerId).toList());
+        }
+    }
+
+    // applies the last journaled write of every customer that the database does not reflect yet
+    private void replay() {
+        Map<Short, Deque<Entry>> writes = new HashMap<>();
+        try {
+            journal.replay(entry -> {
+                Deque<Entry> customerWrites = writes.computeIfAbsent(entry.customerId(), id -> new ArrayDeque<>());
+                if (entry.type() == OrderJournal.UNDO) {
+                    customerWrites.pollLast();
+                } else {
+                    customerWrites.addLast(entry);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<Short, Entry> journaled = new HashMap<>();
+        writes.forEach((customerId, customerWrites) -> {
+            if (!customerWrites.isEmpty()) {
+                journaled.put(customerId, customerWrites.getLast());
+            }
+        });
+        if (journaled.isEmpty()) {
+            truncateJournal();
+            return;
+        }
+
+        Map<Short, OrderSummary> stored = new HashMap<>();
+        jpaOrderStore.load(order -> {
+            if (journaled.containsKey(order.getCustomerId())) {
+                stored.put(order.getCustomerId(), order);
+            }
+        });
+        List<Entry> replays = new ArrayList<>();
+        List<Short> deletes = new ArrayList<>();
+        List<Order> saves = new ArrayList<>();
+        for (Entry entry : journaled.values()) {
+            OrderSummary order = stored.get(entry.customerId());
+            boolean current = order != null && order.getQuantity() == entry.quantity()
+                    && Objects.equals(order.getTimestamp(), entry.timestamp());
+            if (order != null && !current) {
+                deletes.add(entry.customerId());
+            }
+            if (entry.type() == OrderJournal.SAVE && !current) {
+                saves.add(new Order(entry.customerId(), entry.quantity(), entry.timestamp()));
+            }
+            if (!current && (order != null || entry.type() == OrderJournal.SAVE)) {
+                replays.add(entry);
+            }
+        }
+        if (!replays.isEmpty()) {
+            log.info("Replaying {} deletes and {} saves from the order journal", deletes.size(), saves.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jpaOrderStore.deleteAll(deletes);
+                    jpaOrderStore.saveAll(saves);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Replaying the order journal failed, replaying write by write", e);
+                replaySeparately(replays, stored);
+            }
+        }
+        truncateJournal();
+    }
+
+    // every customer in a transaction of its own, a write the database rejects is set aside, any other failure
+    // fails the start as the database can not be reached
+    private void replaySeparately(List<Entry> replays, Map<Short, OrderSummary> stored) {
+        for (Entry entry : replays) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (stored.containsKey(entry.customerId())) {
+                        jpaOrderStore.deleteAll(List.of(entry.customerId()));
+                    }
+                    if (entry.type() == OrderJournal.SAVE) {
+                        jpaOrderStore.saveAll(List.of(new Order(entry.customerId(), entry.quantity(),
+                                entry.timestamp())));
+                    }
+                });
+            } catch (RuntimeException e) {
+                if (!isRejection(e) || !setAside(entry, e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void truncateJournal() {
+        try {
+            journal.truncateIf(() -> unflushed.get() == 0);
+        } catch (IOException e) {
+            // the journal is emptied after a later flush, a replay of flushed writes changes nothing
+            log.warn("Truncating the order journal failed", e);
+        }
+    }
+}
@@ -5,5 +5,6 @@ public class Constant {
     public static final int DELIVERY_TIME = 5; // 5 minutes for each cart
     public static final int MAX_CUSTOMER_ID = 20000;
     public static final int MIN_CUSTOMER_ID = 1;
+    public static final int PREMIUM_CUSTOMER_ID_LIMIT = 1000; // customers below this id are premium
 
 }
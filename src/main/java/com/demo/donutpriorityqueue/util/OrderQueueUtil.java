@@ -1,19 +1,23 @@
 package com.demo.donutpriorityqueue.util;
 
 import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
 import com.demo.donutpriorityqueue.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Component
+@Profile("!embedded")
 public class OrderQueueUtil {
     @Autowired
     OrderRepository orderRepository;
+    @Autowired
+    OrderQueue orderQueue;
 
     /**
      * get orders made by premium customers
@@ -27,17 +31,8 @@ public class OrderQueueUtil {
      * get the order queue sorted by priority and timestamp
      * @return list of order entity
      */
-    public List<Order> getOrderQueue() {
-        List<Order> premiumOrders = this.getPremiumOrders();
-        List<Order> normalOrders = orderRepository.findAll()
-                .stream()
-                .filter(Predicate.not(premiumOrders::contains))
-                .collect(Collectors.toList());
-
-        premiumOrders.sort(((o1, o2) -> (int) (o1.getTimestamp() - (o2.getTimestamp()))));
-        normalOrders.sort(((o1, o2) -> (int) (o1.getTimestamp() - (o2.getTimestamp()))));
-
-        return Stream.concat(premiumOrders.stream(), normalOrders.stream()).toList();
+    public List<OrderSummary> getOrderQueue() {
+        return orderQueue.toList();
     }
 
     /**
@@ -49,7 +44,7 @@ public class OrderQueueUtil {
     public int computeWaitTime(Collection<Order> previousOrders, Order currentOrder) {
         List<Order> sortedOrders = previousOrders
                 .stream()
-                .sorted((o1, o2) -> (int) (o1.getTimestamp() - (o2.getTimestamp())))
+                .sorted(Comparator.comparing(Order::getTimestamp))
                 .toList();
 
         int orderBatchNumber = 1;
@@ -0,0 +1,31 @@
+package com.demo.donutpriorityqueue.util;
+
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+
+public class OrderValidator {
+
+    /**
+     * Validate the request for creating an order
+     * @param createOrderRequest the dto for creating an order
+     * @throws IllegalStateException exception when bad request body
+     */
+    public static void validate(CreateOrderRequest createOrderRequest) throws IllegalStateException {
+        if (createOrderRequest.customerId() == null || createOrderRequest.quantity() == null) {
+            throw new IllegalStateException("Customer id and quantity are required");
+        }
+        // check if the customer id is within the accepted range
+        if (createOrderRequest.customerId() > Constant.MAX_CUSTOMER_ID ||
+                createOrderRequest.customerId() < Constant.MIN_CUSTOMER_ID) {
+            throw new IllegalStateException("Invalid customer id");
+        }
+        // check if the order quantity is at least one donut, carts and wait times are packed by quantity
+        if (createOrderRequest.quantity() < 1) {
+            throw new IllegalStateException("The order quantity must be at least 1");
+        }
+        // check if the order quantity exceeds the maximum
+        if (createOrderRequest.quantity() > Constant.CART_CAPACITY) {
+            throw new IllegalStateException(String.format("The order exceeds the maximum quantity available to buy: %d",
+                    Constant.CART_CAPACITY));
+        }
+    }
+}
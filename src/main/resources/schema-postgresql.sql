@@ -0,0 +1,34 @@
+-- runs after hibernate has updated the tables, see spring.jpa.defer-datasource-initialization,
+-- the prod profile turns the schema update off and relies on this script alone
+
+-- the increment is the allocation size of OrderIdGenerator
+CREATE SEQUENCE IF NOT EXISTS order_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS donut_order (
+    id          BIGINT NOT NULL PRIMARY KEY,
+    customer_id SMALLINT UNIQUE,
+    quantity    SMALLINT,
+    timestamp   BIGINT
+);
+
+-- queue order: premium orders first, then by timestamp and customer id,
+-- quantity is included so queue reads are index-only scans
+CREATE INDEX IF NOT EXISTS donut_order_priority_idx
+    ON donut_order ((customer_id < 1000) DESC, timestamp, customer_id) INCLUDE (quantity);
+
+-- orders placed before a timestamp, index-only for OrderRepository.findSummariesByTimestampLessThan
+CREATE INDEX IF NOT EXISTS donut_order_timestamp_idx
+    ON donut_order (timestamp) INCLUDE (customer_id, quantity);
+
+-- version of the stored orders, advanced by every statement on the table and read in O(1) by
+-- OrderRepository.findStoreVersion. A sequence is never rolled back and takes no row lock, so writers do not queue
+-- up behind it, a rolled back statement only makes a copy of the queue look stale.
+-- the function body is quoted so the script needs no statement delimiter of its own
+CREATE SEQUENCE IF NOT EXISTS donut_order_version_seq;
+
+CREATE OR REPLACE FUNCTION donut_order_advance_version() RETURNS TRIGGER LANGUAGE plpgsql AS
+    'BEGIN PERFORM nextval(''donut_order_version_seq''); RETURN NULL; END';
+
+DROP TRIGGER IF EXISTS donut_order_version_trg ON donut_order;
+CREATE TRIGGER donut_order_version_trg AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON donut_order
+    FOR EACH STATEMENT EXECUTE FUNCTION donut_order_advance_version();
@@ -0,0 +1,116 @@
+package com.demo.donutpriorityqueue.controller;
+
+import com.demo.donutpriorityqueue.config.ReactiveWebConfig;
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import com.demo.donutpriorityqueue.dto.OrderQueueDto;
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.service.ReactiveOrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.demo.donutpriorityqueue.controller.OrderController.BASE_ORDER_URL;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderControllerTest {
+    @Mock
+    private ReactiveOrderService orderService;
+
+    private AnnotationConfigApplicationContext context;
+    private WebTestClient webTestClient;
+
+    @Configuration
+    @EnableWebFlux
+    static class WebFluxConfig {
+    }
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("reactive");
+        context.registerBean(ReactiveOrderService.class, () -> orderService);
+        context.register(WebFluxConfig.class, ReactiveWebConfig.class, ReactiveOrderController.class);
+        context.refresh();
+        webTestClient = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void testCreateOrder() {
+        // given
+        CreateOrderRequest createOrderRequest = new CreateOrderRequest((short) 1, (short) 10);
+        OrderResponse orderResponse = new OrderResponse((short) 1, (short) 10, 1, 5);
+        given(orderService.createOrder(createOrderRequest)).willReturn(Mono.just(orderResponse));
+
+        // when/then
+        webTestClient.post().uri(BASE_ORDER_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createOrderRequest)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(OrderResponse.class).isEqualTo(orderResponse);
+    }
+
+    @Test
+    void testViewQueueResolvesPageable() {
+        // given
+        given(orderService.queueVersion()).willReturn(7L);
+        given(orderService.viewQueue(PageRequest.of(1, 2)))
+                .willReturn(Mono.just(new OrderQueueDto(Page.empty(PageRequest.of(1, 2)))));
+
+        // when/then
+        webTestClient.get().uri(BASE_ORDER_URL + "/queue?page=1&size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"7\"");
+        verify(orderService, times(1)).viewQueue(PageRequest.of(1, 2));
+    }
+
+    @Test
+    void testViewQueueNotModified() {
+        // given
+        given(orderService.queueVersion()).willReturn(7L);
+
+        // when/then
+        webTestClient.get().uri(BASE_ORDER_URL + "/queue")
+                .ifNoneMatch("\"7\"")
+                .exchange()
+                .expectStatus().isNotModified();
+        verify(orderService, never()).viewQueue(any());
+    }
+
+    @Test
+    void testExportQueue() {
+        // given
+        OrderResponse first = new OrderResponse((short) 1, (short) 10, 1, 5);
+        OrderResponse second = new OrderResponse((short) 2, (short) 45, 2, 10);
+        given(orderService.exportQueue()).willReturn(Flux.just(first, second));
+
+        // when/then
+        webTestClient.get().uri(BASE_ORDER_URL + "/queue/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(OrderResponse.class).isEqualTo(List.of(first, second));
+    }
+}
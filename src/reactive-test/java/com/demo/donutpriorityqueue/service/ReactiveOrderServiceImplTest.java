@@ -0,0 +1,173 @@
+package com.demo.donutpriorityqueue.service;
+
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.mapper.OrderMapper;
+import com.demo.donutpriorityqueue.metrics.OrderMetrics;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.store.JpaOrderStore;
+import com.demo.donutpriorityqueue.store.OrderStore;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.NoResultException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderServiceImplTest {
+    @InjectMocks
+    private ReactiveOrderServiceImpl orderService;
+    @Mock
+    private DatabaseClient databaseClient;
+    @Mock
+    private DatabaseClient.GenericExecuteSpec executeSpec;
+    @Mock
+    private RowsFetchSpec<Short> rowsFetchSpec;
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private OrderQueue orderQueue;
+    @Mock
+    private OrderMetrics orderMetrics;
+
+    private void givenStatement() {
+        given(databaseClient.sql(anyString())).willReturn(executeSpec);
+        given(executeSpec.bind(anyString(), any())).willReturn(executeSpec);
+    }
+
+    @Test
+    void testCreateOrder() {
+        // given
+        OrderResponse orderResponse = new OrderResponse((short) 11, (short) 10, 1, 5);
+        given(orderQueue.claim((short) 11)).willReturn(true);
+        givenStatement();
+        given(executeSpec.then()).willReturn(Mono.empty());
+        given(orderMapper.orderToOrderResponse(any())).willReturn(orderResponse);
+
+        // when/then
+        StepVerifier.create(orderService.createOrder(new CreateOrderRequest((short) 11, (short) 10)))
+                .expectNext(orderResponse)
+                .verifyComplete();
+        verify(orderQueue, times(1)).offer(any(Order.class));
+        verify(orderMetrics, times(1)).recordWaitTime(5);
+    }
+
+    @Test
+    void testCreateExistingOrder() {
+        // given
+        given(orderQueue.claim((short) 11)).willReturn(false);
+
+        // when/then
+        StepVerifier.create(orderService.createOrder(new CreateOrderRequest((short) 11, (short) 10)))
+                .verifyError(EntityExistsException.class);
+        verify(databaseClient, never()).sql(anyString());
+    }
+
+    @Test
+    void testCreateOrderReleasesClaimOnFailure() {
+        // given
+        given(orderQueue.claim((short) 11)).willReturn(true);
+        givenStatement();
+        given(executeSpec.then()).willReturn(Mono.error(new DataAccessResourceFailureException("database down")));
+
+        // when/then
+        StepVerifier.create(orderService.createOrder(new CreateOrderRequest((short) 11, (short) 10)))
+                .verifyError(DataAccessResourceFailureException.class);
+        verify(orderQueue, times(1)).release((short) 11);
+        verify(orderQueue, never()).offer(any());
+    }
+
+    @Test
+    void testCancelOrder() {
+        // given
+        OrderSummary order = new Order((short) 11, (short) 10, 1L);
+        given(orderQueue.cancel((short) 11)).willReturn(order);
+        givenStatement();
+        given(executeSpec.then()).willReturn(Mono.empty());
+
+        // when/then
+        StepVerifier.create(orderService.cancelOrder((short) 11)).verifyComplete();
+        verify(orderQueue, times(1)).release((short) 11);
+    }
+
+    @Test
+    void testCancelNotExistingOrder() {
+        // when/then
+        StepVerifier.create(orderService.cancelOrder((short) 11)).verifyError(NoResultException.class);
+        verify(databaseClient, never()).sql(anyString());
+    }
+
+    @Test
+    void testCancelOrderRestoresOrderOnFailure() {
+        // given
+        OrderSummary order = new Order((short) 11, (short) 10, 1L);
+        given(orderQueue.cancel((short) 11)).willReturn(order);
+        givenStatement();
+        given(executeSpec.then()).willReturn(Mono.error(new DataAccessResourceFailureException("database down")));
+
+        // when/then
+        StepVerifier.create(orderService.cancelOrder((short) 11))
+                .verifyError(DataAccessResourceFailureException.class);
+        verify(orderQueue, times(1)).restore(order);
+        verify(orderQueue, never()).release((short) 11);
+    }
+
+    @Test
+    void testViewNotExistingOrder() {
+        // when/then
+        StepVerifier.create(orderService.viewOrder((short) 11)).verifyError(NoResultException.class);
+    }
+
+    @Test
+    void testExportQueueTakesPositionsFromQueue() {
+        // given
+        OrderResponse first = new OrderResponse((short) 2, (short) 10, 1, 5);
+        given(databaseClient.sql(anyString())).willReturn(executeSpec);
+        given(executeSpec.filter(ArgumentMatchers.<Function<? super Statement, ? extends Statement>>any()))
+                .willReturn(executeSpec);
+        given(executeSpec.<Short>map(ArgumentMatchers.<Function<? super Readable, Short>>any()))
+                .willReturn(rowsFetchSpec);
+        given(rowsFetchSpec.all()).willReturn(Flux.just((short) 1, (short) 2));
+        // the order of customer 1 left the queue after the rows were read
+        given(orderQueue.<OrderResponse>status(any(), any()))
+                .willAnswer(invocation -> invocation.<Short>getArgument(0) == 2 ? first : null);
+
+        // when/then
+        StepVerifier.create(orderService.exportQueue())
+                .expectNext(first)
+                .verifyComplete();
+    }
+
+    @Test
+    void testCheckOrderStore() {
+        // given
+        ReflectionTestUtils.setField(orderService, "orderStore", mock(OrderStore.class));
+
+        // when/then
+        assertThrows(IllegalStateException.class, orderService::checkOrderStore);
+        ReflectionTestUtils.setField(orderService, "orderStore", mock(JpaOrderStore.class));
+        assertDoesNotThrow(orderService::checkOrderStore);
+    }
+}
@@ -0,0 +1,29 @@
+package com.demo.donutpriorityqueue.config;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the reactive build, which has both a JDBC data source and an R2DBC connection factory.
+ * Hibernate still creates the schema and the queue is still rebuilt through JPA on startup.
+ */
+@Configuration
+public class ReactiveConfig {
+
+    /**
+     * Run the schema scripts through JDBC after Hibernate has created the tables. Spring Boot prefers R2DBC for
+     * the scripts once a connection factory exists, which would run them before the tables are created
+     * @param dataSource JDBC data source
+     * @param properties the spring.sql.init properties
+     * @return the initializer of the schema scripts
+     */
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                                      SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties);
+    }
+}
@@ -0,0 +1,23 @@
+package com.demo.donutpriorityqueue.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * WebFlux configuration of the reactive build. Spring Boot only registers the Spring Data web support for servlet
+ * applications, so the resolver of {@link org.springframework.data.domain.Pageable} arguments is added here.
+ */
+@Configuration
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    /**
+     * Resolve Pageable arguments from the page, size and sort query parameters, as the blocking stack does
+     * @param configurer the configurer of the argument resolvers
+     */
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactivePageableHandlerMethodArgumentResolver());
+    }
+}
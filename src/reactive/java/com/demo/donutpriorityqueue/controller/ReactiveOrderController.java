@@ -0,0 +1,105 @@
+package com.demo.donutpriorityqueue.controller;
+
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import com.demo.donutpriorityqueue.dto.OrderQueueDto;
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.dto.UpcomingDeliveryDto;
+import com.demo.donutpriorityqueue.service.ReactiveOrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.demo.donutpriorityqueue.controller.OrderController.BASE_ORDER_URL;
+
+/**
+ * Order endpoints of the reactive profile, same paths and payloads as {@link OrderController}
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(BASE_ORDER_URL)
+public class ReactiveOrderController {
+    @Autowired
+    private ReactiveOrderService orderService;
+
+    /**
+     * Route the POST request to create order
+     * @param createOrderRequest the dto for creating an order
+     * @return the response dto for an order
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<OrderResponse> createOrder(@RequestBody CreateOrderRequest createOrderRequest) {
+        return orderService.createOrder(createOrderRequest);
+    }
+
+    /**
+     * Route the DELETE request to cancel order
+     * @param customerId id of a customer
+     * @return completion
+     */
+    @DeleteMapping("/{customerId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> cancelOrder(@PathVariable Short customerId) {
+        return orderService.cancelOrder(customerId);
+    }
+
+    /**
+     * Route the GET request with path variable customerId to view order
+     * @param customerId id of a customer
+     * @return the response dto for an order
+     */
+    @GetMapping("/{customerId}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<OrderResponse> viewOrder(@PathVariable Short customerId) {
+        return orderService.viewOrder(customerId);
+    }
+
+    /**
+     * Route the GET request at endpoint "queue" to view the order queue, answered with 304 if the queue
+     * did not change since the ETag the client sent
+     * @param pageable attributes for defining a page
+     * @param exchange the current exchange
+     * @return the dto for the order queue, empty if not modified
+     */
+    @GetMapping("/queue")
+    public Mono<OrderQueueDto> viewQueue(Pageable pageable, ServerWebExchange exchange) {
+        if (exchange.checkNotModified(queueETag())) {
+            return Mono.empty();
+        }
+        return orderService.viewQueue(pageable);
+    }
+
+    /**
+     * Route the GET request at endpoint "queue/export" to stream the whole order queue as newline delimited json,
+     * rows are read from the database as fast as the client takes them
+     * @return the response dto for every queued order
+     */
+    @GetMapping(value = "/queue/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderResponse> exportQueue() {
+        return orderService.exportQueue();
+    }
+
+    /**
+     * Route the GET request at endpoint "next_delivery" to view the next delivery, answered with 304 if the queue
+     * did not change since the ETag the client sent
+     * @param exchange the current exchange
+     * @return the dto for the next delivery, empty if not modified
+     */
+    @GetMapping("/next_delivery")
+    public Mono<UpcomingDeliveryDto> viewNextDelivery(ServerWebExchange exchange) {
+        if (exchange.checkNotModified(queueETag())) {
+            return Mono.empty();
+        }
+        return orderService.viewNextDelivery();
+    }
+
+    private String queueETag() {
+        return String.valueOf(orderService.queueVersion());
+    }
+}
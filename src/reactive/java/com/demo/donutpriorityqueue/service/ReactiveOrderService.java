@@ -0,0 +1,28 @@
+package com.demo.donutpriorityqueue.service;
+
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import com.demo.donutpriorityqueue.dto.OrderQueueDto;
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.dto.UpcomingDeliveryDto;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link OrderService}, errors are signalled with the exceptions of the blocking service
+ */
+public interface ReactiveOrderService {
+    Mono<OrderResponse> createOrder(CreateOrderRequest createOrderRequest);
+
+    Mono<Void> cancelOrder(Short customerId);
+
+    Mono<OrderResponse> viewOrder(Short customerId);
+
+    Mono<OrderQueueDto> viewQueue(Pageable pageable);
+
+    Flux<OrderResponse> exportQueue();
+
+    Mono<UpcomingDeliveryDto> viewNextDelivery();
+
+    long queueVersion();
+}
@@ -0,0 +1,183 @@
+package com.demo.donutpriorityqueue.service;
+
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import com.demo.donutpriorityqueue.dto.OrderDeliveryDto;
+import com.demo.donutpriorityqueue.dto.OrderQueueDto;
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.dto.UpcomingDeliveryDto;
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.mapper.OrderMapper;
+import com.demo.donutpriorityqueue.metrics.OrderMetrics;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.store.JpaOrderStore;
+import com.demo.donutpriorityqueue.store.OrderStore;
+import com.demo.donutpriorityqueue.util.OrderValidator;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.NoResultException;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Order service of the reactive profile. Orders are written and exported with R2DBC, no request holds a thread
+ * while it waits for the database. Positions and wait times are answered from the same in-memory
+ * {@link OrderQueue} as the blocking service, whose critical sections are short enough to run on the event loop.
+ * The writes go straight to the table of the {@link JpaOrderStore}, so the reactive stack refuses to start with
+ * the write-behind or the embedded store.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveOrderServiceImpl implements ReactiveOrderService {
+    private static final int EXPORT_FETCH_SIZE = 500;
+    // the id is the low end of a block of the pooled-lo sequence, see OrderIdGenerator, so it is never handed out twice
+    private static final String INSERT_ORDER = "INSERT INTO donut_order (id, customer_id, quantity, timestamp) " +
+            "VALUES (nextval('order_seq'), :customerId, :quantity, :timestamp)";
+    private static final String DELETE_ORDER = "DELETE FROM donut_order WHERE customer_id = :customerId";
+    // the order of the priority index, the queue order of the strict priority policy
+    private static final String SELECT_QUEUE = "SELECT customer_id FROM donut_order " +
+            "ORDER BY (customer_id < 1000) DESC, timestamp, customer_id";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+    @Autowired
+    private OrderStore orderStore;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private OrderQueue orderQueue;
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    /**
+     * Check that the orders are stored in the database table the reactive writes go to
+     * @throws IllegalStateException exception when another store is configured
+     */
+    @PostConstruct
+    public void checkOrderStore() throws IllegalStateException {
+        if (!JpaOrderStore.class.isAssignableFrom(AopUtils.getTargetClass(orderStore))) {
+            throw new IllegalStateException(String.format("The reactive profile writes to the database directly " +
+                    "and can not run with %s!", AopUtils.getTargetClass(orderStore).getSimpleName()));
+        }
+    }
+
+    /**
+     * Service for creating order
+     * @param createOrderRequest the dto for creating an order
+     * @return the response dto for an order, fails with EntityExistsException when customer id already existed
+     * or IllegalStateException when bad request body
+     */
+    @Override
+    public Mono<OrderResponse> createOrder(CreateOrderRequest createOrderRequest) {
+        return Mono.fromCallable(() -> {
+                    OrderValidator.validate(createOrderRequest);
+                    if (!orderQueue.claim(createOrderRequest.customerId())) {
+                        throw new EntityExistsException(String.format("Customer %d has an existing order!",
+                                createOrderRequest.customerId()));
+                    }
+                    return new Order(createOrderRequest.customerId(), createOrderRequest.quantity());
+                })
+                .flatMap(order -> databaseClient.sql(INSERT_ORDER)
+                        .bind("customerId", order.getCustomerId())
+                        .bind("quantity", order.getQuantity())
+                        .bind("timestamp", order.getTimestamp())
+                        .then()
+                        .doOnError(e -> orderQueue.release(order.getCustomerId()))
+                        .then(Mono.fromSupplier(() -> {
+                            orderQueue.offer(order);
+                            OrderResponse orderResponse = orderMapper.orderToOrderResponse(order);
+                            orderMetrics.recordWaitTime(orderResponse.waitTime());
+                            return orderResponse;
+                        })));
+    }
+
+    /**
+     * Service for cancelling order, the order is taken out of the queue first so the existence check needs no
+     * database round-trip, and put back in its place if it could not be deleted
+     * @param customerId id of a customer
+     * @return completion, fails with NoResultException when order does not exist with the customer id
+     */
+    @Override
+    public Mono<Void> cancelOrder(Short customerId) {
+        return Mono.fromCallable(() -> {
+                    OrderSummary order = orderQueue.cancel(customerId);
+                    if (order == null) {
+                        throw new NoResultException(String.format("No order had been created by customer %d!",
+                                customerId));
+                    }
+                    return order;
+                })
+                .flatMap(order -> databaseClient.sql(DELETE_ORDER)
+                        .bind("customerId", customerId)
+                        .then()
+                        .doOnError(e -> orderQueue.restore(order))
+                        .doOnSuccess(deleted -> orderQueue.release(customerId)));
+    }
+
+    /**
+     * Service for viewing order
+     * @param customerId id of a customer
+     * @return the response dto for an order, fails with NoResultException when order does not exist with the
+     * customer id
+     */
+    @Override
+    public Mono<OrderResponse> viewOrder(Short customerId) {
+        return Mono.fromSupplier(() -> orderQueue.status(customerId, OrderResponse::new))
+                .switchIfEmpty(Mono.error(() -> new NoResultException(String.format(
+                        "No order had been created by customer %d!", customerId))))
+                .doOnNext(orderResponse -> orderMetrics.recordWaitTime(orderResponse.waitTime()));
+    }
+
+    /**
+     * Service for viewing the order queue
+     * @param pageable attributes for defining a page
+     * @return the dto for the order queue
+     */
+    @Override
+    public Mono<OrderQueueDto> viewQueue(Pageable pageable) {
+        return Mono.fromSupplier(() -> orderMapper.queueEntryPageToOrderQueueDto(orderQueue.page(pageable)));
+    }
+
+    /**
+     * Service for streaming the whole order queue from a database cursor. Rows are fetched as the subscriber
+     * requests them, so a slow client holds one fetch of rows and not the whole queue. The rows come in the order
+     * of the priority index, position and wait time of every order are taken from the in-memory queue, so they
+     * follow the configured scheduling policy and cart packer, and orders which left the queue meanwhile are
+     * skipped. Under any policy but strict priority the positions are not in row order
+     * @return the response dto for every queued order
+     */
+    @Override
+    public Flux<OrderResponse> exportQueue() {
+        return databaseClient.sql(SELECT_QUEUE)
+                .filter(statement -> statement.fetchSize(EXPORT_FETCH_SIZE))
+                .map(row -> row.get("customer_id", Short.class))
+                .all()
+                .mapNotNull(customerId -> orderQueue.status(customerId, OrderResponse::new));
+    }
+
+    /**
+     * Service for viewing the next delivery
+     * @return the dto for the next delivery
+     */
+    @Override
+    public Mono<UpcomingDeliveryDto> viewNextDelivery() {
+        return Mono.fromSupplier(() -> new UpcomingDeliveryDto(orderQueue.nextCart().stream()
+                .map(order -> new OrderDeliveryDto(order.getCustomerId(), order.getQuantity()))
+                .toList()));
+    }
+
+    /**
+     * Service for getting the version of the order queue, used to answer conditional requests
+     * @return version of the order queue
+     */
+    @Override
+    public long queueVersion() {
+        return orderQueue.version();
+    }
+}
@@ -0,0 +1,55 @@
+package com.demo.donutpriorityqueue.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConnectionLimitingDataSourceTest {
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+
+    @Test
+    public void testLimitsConnections() throws SQLException {
+        // given
+        given(dataSource.getConnection()).willReturn(connection);
+        ConnectionLimitingDataSource limitingDataSource =
+                new ConnectionLimitingDataSource(dataSource, 1, Duration.ofMillis(10));
+
+        // when
+        Connection first = limitingDataSource.getConnection();
+
+        // then
+        assertEquals(0, limitingDataSource.availablePermits());
+        assertThrows(SQLTransientConnectionException.class, limitingDataSource::getConnection);
+        first.close();
+        first.close();
+        assertEquals(1, limitingDataSource.availablePermits());
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    public void testReleasesPermitWhenPoolFails() throws SQLException {
+        // given
+        given(dataSource.getConnection()).willThrow(new SQLException("pool exhausted"));
+        ConnectionLimitingDataSource limitingDataSource =
+                new ConnectionLimitingDataSource(dataSource, 1, Duration.ofMillis(10));
+
+        // when/then
+        assertThrows(SQLException.class, limitingDataSource::getConnection);
+        assertEquals(1, limitingDataSource.availablePermits());
+    }
+}
@@ -2,7 +2,10 @@ package com.demo.donutpriorityqueue.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.metrics.OrderMetrics;
 import com.demo.donutpriorityqueue.service.OrderServiceImpl;
+import com.demo.donutpriorityqueue.service.OrderUpdateService;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.NoResultException;
 import org.junit.jupiter.api.Test;
@@ -11,13 +14,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 import static com.demo.donutpriorityqueue.controller.OrderController.BASE_ORDER_URL;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -30,6 +43,12 @@ class OrderControllerTest {
     @MockBean
     private OrderServiceImpl orderService;
 
+    @MockBean
+    private OrderMetrics orderMetrics;
+
+    @MockBean
+    private OrderUpdateService orderUpdateService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -62,6 +81,7 @@ class OrderControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isConflict());
         verify(orderService, times(1)).createOrder(createOrderRequest);
+        verify(orderMetrics, times(1)).countError(HttpStatus.CONFLICT);
     }
 
     @Test
@@ -78,6 +98,23 @@ class OrderControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
         verify(orderService, times(1)).createOrder(createOrderRequest);
+        verify(orderMetrics, times(1)).countError(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testCreateOrders() throws Exception {
+        // given
+        List<CreateOrderRequest> createOrderRequests = List.of(
+                new CreateOrderRequest((short) 1, (short) 10),
+                new CreateOrderRequest((short) 2, (short) 20));
+
+        // when/then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post(String.format("%s/%s", BASE_ORDER_URL, "bulk"))
+                        .content(objectMapper.writeValueAsString(createOrderRequests))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(orderService, times(1)).createOrders(createOrderRequests);
     }
 
     @Test
@@ -108,6 +145,7 @@ class OrderControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
         verify(orderService, times(1)).cancelOrder(customerId);
+        verify(orderMetrics, times(1)).countError(HttpStatus.NOT_FOUND);
 
     }
 
@@ -155,6 +193,83 @@ class OrderControllerTest {
 
     }
 
+    @Test
+    public void testViewQueueNotModified() throws Exception {
+        // given
+        given(orderService.queueVersion()).willReturn(5L);
+
+        // when/then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(String.format("%s/%s", BASE_ORDER_URL, "queue"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+        verify(orderService, never()).viewQueue(any());
+
+    }
+
+    @Test
+    public void testViewQueueModified() throws Exception {
+        // given
+        given(orderService.queueVersion()).willReturn(6L);
+
+        // when/then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(String.format("%s/%s", BASE_ORDER_URL, "queue"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
+        verify(orderService, times(1)).viewQueue(any());
+
+    }
+    @Test
+    public void testSubscribeOrder() throws Exception {
+        // given
+        short customerId = 1;
+        given(orderUpdateService.subscribe(customerId)).willReturn(new SseEmitter());
+
+        // when/then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(String.format("%s/%d/updates", BASE_ORDER_URL, customerId)))
+                .andExpect(request().asyncStarted());
+        verify(orderUpdateService, times(1)).subscribe(customerId);
+    }
+
+    @Test
+    public void testSubscribeNotExistingOrder() throws Exception {
+        // given
+        short customerId = 1;
+        given(orderUpdateService.subscribe(customerId)).willThrow(
+                new NoResultException("Customer 1 had not placed an order!"));
+
+        // when/then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(String.format("%s/%d/updates", BASE_ORDER_URL, customerId)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testExportQueue() throws Exception {
+        // given
+        given(orderService.exportQueue()).willReturn(Stream.of(
+                new OrderResponse((short) 1, (short) 20, 1, 5),
+                new OrderResponse((short) 2000, (short) 25, 2, 5)));
+
+        // when/then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get(String.format("%s/%s", BASE_ORDER_URL, "queue/export")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"customerId\":1,\"quantity\":20,\"position\":1,\"waitTime\":5}\n" +
+                        "{\"customerId\":2000,\"quantity\":25,\"position\":2,\"waitTime\":5}\n"));
+        verify(orderService, times(1)).exportQueue();
+
+    }
+
     @Test
     public void testViewNextDelivery() throws Exception {
         // when/then
@@ -165,4 +280,29 @@ class OrderControllerTest {
         verify(orderService, times(1)).viewNextDelivery();
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testViewNextDeliveryNotModified() throws Exception {
+        // given
+        given(orderService.queueVersion()).willReturn(5L);
+
+        // when/then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(String.format("%s/%s", BASE_ORDER_URL, "next_delivery"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andExpect(status().isNotModified());
+        verify(orderService, never()).viewNextDelivery();
+
+    }
+
+    @Test
+    public void testDispatchNextDelivery() throws Exception {
+        // when/then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post(String.format("%s/%s", BASE_ORDER_URL, "dispatch"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(orderService, times(1)).dispatchNextDelivery();
+
+    }
+}
@@ -1,9 +1,10 @@
 package com.demo.donutpriorityqueue.mapper;
 
-import com.demo.donutpriorityqueue.repository.OrderRepository;
+import com.demo.donutpriorityqueue.dto.OrderQueueDto;
 import com.demo.donutpriorityqueue.dto.OrderResponse;
 import com.demo.donutpriorityqueue.entity.Order;
-import com.demo.donutpriorityqueue.util.OrderQueueUtil;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.queue.QueueEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,9 +12,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -22,9 +26,7 @@ public class OrderMapperTest {
     @InjectMocks
     private OrderMapperImpl orderMapper;
     @Mock
-    private OrderRepository orderRepository;
-    @Mock
-    private OrderQueueUtil orderQueueUtil;
+    private OrderQueue orderQueue;
 
     OrderMapperImpl spyOrderMapper;
 
@@ -59,6 +61,21 @@ public class OrderMapperTest {
 
     }
 
+    @Test
+    public void testGetQueuingStatus() {
+        // given
+        Order order = new Order((short) 1000, (short) 5);
+        given(orderQueue.position(order)).willReturn(3);
+        given(orderQueue.waitTime(order)).willReturn(10);
+
+        // when
+        OrderResponse orderResponse = orderMapper.orderToOrderResponse(order);
+
+        // then
+        assertEquals(new OrderResponse((short) 1000, (short) 5, 3, 10), orderResponse);
+
+    }
+
     @Test
     public void testOrderResponseListToOrderQueueDto() {
         // given
@@ -72,4 +89,20 @@ public class OrderMapperTest {
                 Pageable.ofSize(5).first());
 
     }
+
+    @Test
+    public void testQueueEntryPageToOrderQueueDto() {
+        // given
+        Pageable pageable = Pageable.ofSize(1).withPage(1);
+        QueueEntry queueEntry = new QueueEntry((short) 1000, (short) 5, 0, 1, 2, 10);
+
+        // when
+        OrderQueueDto orderQueueDto = orderMapper.queueEntryPageToOrderQueueDto(
+                new PageImpl<>(List.of(queueEntry), pageable, 3));
+
+        // then
+        assertEquals(List.of(new OrderResponse((short) 1000, (short) 5, 2, 10)),
+                orderQueueDto.orderResponsePage().getContent());
+        assertEquals(3, orderQueueDto.orderResponsePage().getTotalElements());
+    }
 }
@@ -0,0 +1,25 @@
+package com.demo.donutpriorityqueue.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgingPolicyTest {
+    private final AgingPolicy agingPolicy = new AgingPolicy(Duration.ofMinutes(10));
+    private final ServiceClock serviceClock = new ServiceClock();
+
+    @Test
+    public void testRegularOrderKeyIsPromotionTime() {
+        // when/then
+        assertEquals(1000, agingPolicy.key(true, (short) 10, 1000, serviceClock));
+        assertEquals(1600, agingPolicy.key(false, (short) 10, 1000, serviceClock));
+    }
+
+    @Test
+    public void testPromotionTimeShorterThanASecond() {
+        // when/then
+        assertThrows(IllegalArgumentException.class, () -> new AgingPolicy(Duration.ofMillis(500)));
+    }
+}
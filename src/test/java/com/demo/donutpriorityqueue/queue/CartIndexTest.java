@@ -0,0 +1,98 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.util.Constant;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CartIndexTest {
+    private final CartIndex cartIndex = new CartIndex();
+
+    @Test
+    public void testInsert() {
+        // when
+        List.of(25, 15, 30, 15, 20).forEach(quantity -> cartIndex.insert(cartIndex.size(), quantity));
+
+        // then
+        assertEquals(List.of(1, 1, 2, 2, 3), cartNumbers());
+    }
+
+    @Test
+    public void testInsertAheadRepacksBehind() {
+        // given
+        List.of(25, 15, 30, 15).forEach(quantity -> cartIndex.insert(cartIndex.size(), quantity));
+
+        // when
+        cartIndex.insert(0, 40);
+
+        // then
+        assertEquals(List.of(1, 2, 2, 3, 3), cartNumbers());
+    }
+
+    @Test
+    public void testRemove() {
+        // given
+        List.of(25, 15, 30, 15, 20).forEach(quantity -> cartIndex.insert(cartIndex.size(), quantity));
+
+        // when
+        cartIndex.remove(2);
+
+        // then
+        assertEquals(List.of(1, 1, 2, 2), cartNumbers());
+    }
+
+    @Test
+    public void testMatchesFullRepack() {
+        // given
+        Random random = new Random(7);
+        List<Integer> quantities = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i ++) {
+            // when
+            if (quantities.isEmpty() || random.nextInt(3) > 0) {
+                int position = random.nextInt(quantities.size() + 1);
+                int quantity = random.nextInt(Constant.CART_CAPACITY) + 1;
+                quantities.add(position, quantity);
+                cartIndex.insert(position, quantity);
+            } else {
+                int position = random.nextInt(quantities.size());
+                quantities.remove(position);
+                cartIndex.remove(position);
+            }
+
+            // then
+            if (i % 250 == 0) {
+                assertEquals(pack(quantities), cartNumbers());
+            }
+        }
+        assertEquals(pack(quantities), cartNumbers());
+    }
+
+    private List<Integer> cartNumbers() {
+        List<Integer> cartNumbers = new ArrayList<>();
+        for (int i = 0; i < cartIndex.size(); i ++) {
+            cartNumbers.add(cartIndex.cartNumber(i));
+        }
+        return cartNumbers;
+    }
+
+    private static List<Integer> pack(List<Integer> quantities) {
+        List<Integer> cartNumbers = new ArrayList<>();
+        int cartNumber = 1;
+        int cartCapacity = Constant.CART_CAPACITY;
+        for (int quantity : quantities) {
+            if (quantity > cartCapacity) {
+                cartNumber ++;
+                cartCapacity = Constant.CART_CAPACITY - quantity;
+            } else {
+                cartCapacity -= quantity;
+            }
+            cartNumbers.add(cartNumber);
+        }
+        return cartNumbers;
+    }
+}
@@ -0,0 +1,57 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.util.Constant;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CartScheduleTest {
+
+    private static List<Integer> cartNumbers(CartSchedule cartSchedule, int size) {
+        return IntStream.range(0, size).map(cartSchedule::cartNumber).boxed().toList();
+    }
+
+    @Test
+    public void testSkippedOrderWaitsForNextCart() {
+        // when
+        CartSchedule cartSchedule = new CartSchedule(1, new int[] {20, 40, 20, 10}, new LookAheadCartPacker(64),
+                Constant.CART_CAPACITY);
+
+        // then
+        assertEquals(1, cartSchedule.version());
+        assertEquals(List.of(1, 2, 1, 1), cartNumbers(cartSchedule, 4));
+    }
+
+    @Test
+    public void testSkippedOrderStaysInWindow() {
+        // when
+        CartSchedule cartSchedule = new CartSchedule(1, new int[] {30, 30, 20, 20}, new LookAheadCartPacker(2),
+                Constant.CART_CAPACITY);
+
+        // then
+        assertEquals(List.of(1, 2, 2, 3), cartNumbers(cartSchedule, 4));
+    }
+
+    @Test
+    public void testKnapsack() {
+        // when
+        CartSchedule cartSchedule = new CartSchedule(1, new int[] {20, 25, 20, 10, 30}, new KnapsackCartPacker(64),
+                Constant.CART_CAPACITY);
+
+        // then
+        assertEquals(List.of(1, 2, 1, 1, 3), cartNumbers(cartSchedule, 5));
+    }
+
+    @Test
+    public void testOrderNoCartTakesGetsCartOfItsOwn() {
+        // when
+        CartSchedule cartSchedule = new CartSchedule(1, new int[] {60, 20}, new KnapsackCartPacker(64),
+                Constant.CART_CAPACITY);
+
+        // then
+        assertEquals(List.of(1, 2), cartNumbers(cartSchedule, 2));
+    }
+}
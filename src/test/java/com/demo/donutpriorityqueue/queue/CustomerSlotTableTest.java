@@ -0,0 +1,89 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.util.Constant;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerSlotTableTest {
+    private final CustomerSlotTable customerSlots = new CustomerSlotTable();
+
+    @Test
+    public void testClaim() {
+        // when/then
+        assertTrue(customerSlots.claim((short) 1));
+        assertFalse(customerSlots.claim((short) 1));
+        assertTrue(customerSlots.claim((short) Constant.MAX_CUSTOMER_ID));
+        assertTrue(customerSlots.isClaimed((short) 1));
+        assertFalse(customerSlots.isClaimed((short) 2));
+        assertEquals(2, customerSlots.count());
+    }
+
+    @Test
+    public void testRelease() {
+        // given
+        customerSlots.claim((short) 1);
+
+        // when
+        customerSlots.release((short) 1);
+
+        // then
+        assertFalse(customerSlots.isClaimed((short) 1));
+        assertTrue(customerSlots.claim((short) 1));
+    }
+
+    @Test
+    public void testClear() {
+        // given
+        customerSlots.claim((short) 1);
+        customerSlots.claim((short) 2);
+
+        // when
+        customerSlots.clear();
+
+        // then
+        assertFalse(customerSlots.isClaimed((short) 1));
+        assertFalse(customerSlots.isClaimed((short) 2));
+    }
+
+    @Test
+    public void testConcurrentClaimsSucceedOncePerCustomer() throws Exception {
+        // given
+        int threads = 8;
+        int customers = 1000;
+        AtomicInteger successfulClaims = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i ++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int customerId = 1; customerId <= customers; customerId ++) {
+                    if (customerSlots.claim((short) customerId)) {
+                        successfulClaims.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(customers, successfulClaims.get());
+    }
+}
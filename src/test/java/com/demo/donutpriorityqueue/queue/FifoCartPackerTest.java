@@ -0,0 +1,28 @@
+package com.demo.donutpriorityqueue.queue;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FifoCartPackerTest {
+    private final FifoCartPacker fifoCartPacker = new FifoCartPacker();
+
+    @Test
+    public void testStopsAtFirstMisfit() {
+        // when/then
+        assertArrayEquals(new int[] {0, 1}, fifoCartPacker.pack(new int[] {20, 25, 10, 5}, 50));
+    }
+
+    @Test
+    public void testOrderFillingTheCartExactly() {
+        // when/then
+        assertArrayEquals(new int[] {0, 1}, fifoCartPacker.pack(new int[] {20, 30, 1}, 50));
+        assertArrayEquals(new int[] {0}, fifoCartPacker.pack(new int[] {50}, 50));
+    }
+
+    @Test
+    public void testEmptyQueue() {
+        // when/then
+        assertArrayEquals(new int[0], fifoCartPacker.pack(new int[0], 50));
+    }
+}
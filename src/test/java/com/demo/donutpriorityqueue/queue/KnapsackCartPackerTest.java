@@ -0,0 +1,74 @@
+package com.demo.donutpriorityqueue.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KnapsackCartPackerTest {
+    private final KnapsackCartPacker knapsackCartPacker = new KnapsackCartPacker(8);
+
+    @Test
+    public void testFillsTheCart() {
+        // when/then
+        assertArrayEquals(new int[] {0, 2, 3}, knapsackCartPacker.pack(new int[] {20, 25, 20, 10}, 50));
+    }
+
+    @Test
+    public void testAlwaysTakesTheHead() {
+        // when/then
+        assertArrayEquals(new int[] {0, 1}, knapsackCartPacker.pack(new int[] {5, 40, 25, 25}, 50));
+    }
+
+    @Test
+    public void testPrefersOrdersCloserToTheHead() {
+        // when/then
+        assertArrayEquals(new int[] {0, 1, 2}, knapsackCartPacker.pack(new int[] {10, 20, 20, 20, 20}, 50));
+    }
+
+    @Test
+    public void testMatchesExhaustiveSearch() {
+        // given
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run ++) {
+            int[] quantities = random.ints(random.nextInt(9), 1, 51).toArray();
+
+            // when
+            int[] positions = knapsackCartPacker.pack(quantities, 50);
+
+            // then
+            int donuts = Arrays.stream(positions).map(position -> quantities[position]).sum();
+            assertTrue(donuts <= 50);
+            assertEquals(bestFill(quantities, 50), donuts);
+            assertTrue(quantities.length == 0 || positions[0] == 0);
+        }
+    }
+
+    @Test
+    public void testWindowLessThanOne() {
+        // when/then
+        assertThrows(IllegalArgumentException.class, () -> new KnapsackCartPacker(0));
+    }
+
+    // fullest cart with the head, trying every subset of the other orders
+    private static int bestFill(int[] quantities, int capacity) {
+        if (quantities.length == 0) {
+            return 0;
+        }
+        int best = 0;
+        for (int subset = 0; subset < 1 << (quantities.length - 1); subset ++) {
+            int donuts = quantities[0];
+            for (int i = 1; i < quantities.length; i ++) {
+                if ((subset & 1 << (i - 1)) != 0) {
+                    donuts += quantities[i];
+                }
+            }
+            if (donuts <= capacity) {
+                best = Math.max(best, donuts);
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,27 @@
+package com.demo.donutpriorityqueue.queue;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LookAheadCartPackerTest {
+    private final LookAheadCartPacker lookAheadCartPacker = new LookAheadCartPacker(4);
+
+    @Test
+    public void testSkipsOrdersWhichDoNotFit() {
+        // when/then
+        assertArrayEquals(new int[] {0, 1, 3}, lookAheadCartPacker.pack(new int[] {20, 25, 10, 5}, 50));
+    }
+
+    @Test
+    public void testStopsOnceFull() {
+        // when/then
+        assertArrayEquals(new int[] {0, 1}, lookAheadCartPacker.pack(new int[] {20, 30, 1, 1}, 50));
+    }
+
+    @Test
+    public void testWindowLessThanOne() {
+        // when/then
+        assertThrows(IllegalArgumentException.class, () -> new LookAheadCartPacker(0));
+    }
+}
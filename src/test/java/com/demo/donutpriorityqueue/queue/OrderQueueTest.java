@@ -0,0 +1,677 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.store.OrderStore;
+import com.demo.donutpriorityqueue.util.Constant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderQueueTest {
+    @Mock
+    private OrderStore orderStore;
+    private OrderQueue orderQueue;
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() {
+        orderQueue = new OrderQueue(orderStore, new StrictPriorityPolicy(), new FifoCartPacker());
+    }
+
+    private static OrderSummary order(int customerId, int quantity, long timestamp) {
+        return new QueuedOrder((short) customerId, (short) quantity, timestamp);
+    }
+
+    @Test
+    public void testRebuild() {
+        // given
+        OrderSummary order1 = order(10000, 20, 1);
+        OrderSummary order2 = order(20, 25, 3);
+        OrderSummary order3 = order(300, 15, 2);
+        doAnswer(invocation -> {
+            List.of(order3, order2, order1).forEach(invocation.<Consumer<OrderSummary>>getArgument(0));
+            return null;
+        }).when(orderStore).load(any());
+
+        // when
+        orderQueue.rebuild();
+
+        // then
+        assertEquals(List.of(order3, order2, order1), orderQueue.toList());
+        assertFalse(orderQueue.claim((short) 20));
+        assertTrue(orderQueue.claim((short) 21));
+        assertEquals(3, orderQueue.size());
+    }
+
+    @Test
+    public void testRestoreMatchingCopy() throws IOException {
+        // given
+        Path path = directory.resolve("queue.snapshot");
+        ReflectionTestUtils.setField(orderQueue, "snapshotPath", path.toString());
+        List<OrderSummary> orders = List.of(order(300, 15, 2), order(20, 25, 3), order(10000, 20, 1));
+        QueueFile.write(path, 7L, orders);
+        given(orderStore.version()).willReturn(7L);
+
+        // when
+        orderQueue.restore();
+
+        // then
+        assertEquals(orders, orderQueue.toList());
+        assertFalse(orderQueue.claim((short) 20));
+        assertFalse(Files.exists(path));
+        verify(orderStore, never()).load(any());
+    }
+
+    @Test
+    public void testRestoreStaleCopyRebuilds() throws IOException {
+        // given
+        Path path = directory.resolve("queue.snapshot");
+        ReflectionTestUtils.setField(orderQueue, "snapshotPath", path.toString());
+        QueueFile.write(path, 7L, List.of(order(300, 15, 2), order(20, 25, 3)));
+        OrderSummary order = order(20, 25, 3);
+        given(orderStore.version()).willReturn(8L);
+        doAnswer(invocation -> {
+            invocation.<Consumer<OrderSummary>>getArgument(0).accept(order);
+            return null;
+        }).when(orderStore).load(any());
+
+        // when
+        orderQueue.restore();
+
+        // then
+        assertEquals(List.of(order), orderQueue.toList());
+    }
+
+    @Test
+    public void testSaveAndRestore() throws IOException {
+        // given
+        Path path = directory.resolve("queue.snapshot");
+        ReflectionTestUtils.setField(orderQueue, "snapshotPath", path.toString());
+        List<OrderSummary> orders = List.of(order(300, 15, 2), order(10000, 20, 1));
+        orders.forEach(order -> {
+            orderQueue.claim(order.getCustomerId());
+            orderQueue.offer(order);
+        });
+        given(orderStore.version()).willReturn(7L);
+
+        // when
+        orderQueue.save();
+        orderQueue.restore();
+
+        // then
+        assertEquals(orders, orderQueue.toList());
+    }
+
+    @Test
+    public void testSaveSkippedWhileOrderBetweenStoreAndQueue() throws IOException {
+        // given
+        Path path = directory.resolve("queue.snapshot");
+        ReflectionTestUtils.setField(orderQueue, "snapshotPath", path.toString());
+        orderQueue.claim((short) 300);
+        orderQueue.offer(order(300, 15, 2));
+        orderQueue.claim((short) 20);
+
+        // when
+        orderQueue.save();
+
+        // then
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void testOfferSortsByPriorityAndTimestamp() {
+        // given
+        OrderSummary order1 = order(10000, 20, 1);
+        OrderSummary order2 = order(5000, 10, 1);
+        OrderSummary order3 = order(20, 25, 5);
+        OrderSummary order4 = order(300, 15, 4);
+
+        // when
+        List.of(order1, order2, order3, order4).forEach(orderQueue::offer);
+
+        // then
+        assertEquals(List.of(order4, order3, order2, order1), orderQueue.toList());
+    }
+
+    @Test
+    public void testAgingPromotesRegularOrders() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new AgingPolicy(Duration.ofSeconds(60)), new FifoCartPacker());
+        OrderSummary order1 = order(5000, 10, 0);
+        OrderSummary order2 = order(20, 10, 30);
+        OrderSummary order3 = order(30, 10, 90);
+        OrderSummary order4 = order(40, 10, 60);
+
+        // when
+        List.of(order1, order2, order3, order4).forEach(orderQueue::offer);
+
+        // then
+        assertEquals(List.of(order2, order4, order1, order3), orderQueue.toList());
+        assertEquals(3, orderQueue.position(order1));
+        assertEquals(3, orderQueue.premiumSize());
+        assertEquals(1, orderQueue.regularSize());
+    }
+
+    @Test
+    public void testWeightedFairShareInterleavesTiers() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new WeightedFairSharePolicy(3, 1), new FifoCartPacker());
+        List<OrderSummary> premium = List.of(order(1, 10, 0), order(2, 10, 0), order(3, 10, 0), order(4, 10, 0),
+                order(5, 10, 0), order(6, 10, 0));
+        List<OrderSummary> regular = List.of(order(5000, 10, 0), order(5001, 10, 0));
+
+        // when
+        premium.forEach(orderQueue::offer);
+        regular.forEach(orderQueue::offer);
+
+        // then
+        assertEquals(List.of(premium.get(0), regular.get(0), premium.get(1), premium.get(2), premium.get(3),
+                regular.get(1), premium.get(4), premium.get(5)), orderQueue.toList());
+        assertEquals(6, orderQueue.position(regular.get(1)));
+    }
+
+    @Test
+    public void testRestoreKeepsPlaceUnderWeightedFairShare() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new WeightedFairSharePolicy(3, 1), new FifoCartPacker());
+        List<OrderSummary> premium = List.of(order(1, 20, 0), order(2, 20, 0), order(3, 20, 0));
+        List<OrderSummary> regular = List.of(order(5000, 20, 0), order(5001, 20, 0));
+        premium.forEach(orderQueue::offer);
+        regular.forEach(orderQueue::offer);
+        List<OrderSummary> queue = orderQueue.toList();
+
+        // when
+        OrderSummary cancelledOrder = orderQueue.cancel((short) 5000);
+        orderQueue.restore(cancelledOrder);
+        List<OrderSummary> cart = orderQueue.pollNextCart();
+        orderQueue.restoreCart(cart);
+
+        // then
+        assertEquals(List.of(premium.get(0), regular.get(0), premium.get(1), premium.get(2), regular.get(1)), queue);
+        assertEquals(List.of(premium.get(0), regular.get(0)), cart);
+        assertEquals(queue, orderQueue.toList());
+    }
+
+    @Test
+    public void testCancelGivesShareBack() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new WeightedFairSharePolicy(3, 1), new FifoCartPacker());
+        orderQueue.offer(order(1, 30, 0));
+        orderQueue.offer(order(5000, 10, 0));
+        orderQueue.offer(order(5001, 10, 0));
+
+        // when
+        orderQueue.cancel((short) 5001);
+        orderQueue.offer(order(5002, 10, 0));
+        orderQueue.offer(order(2, 30, 0));
+
+        // then
+        assertEquals(List.of(order(1, 30, 0), order(5000, 10, 0), order(2, 30, 0), order(5002, 10, 0)),
+                orderQueue.toList());
+    }
+
+    @Test
+    public void testCancelKeepsTierInTimestampOrder() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new WeightedFairSharePolicy(3, 1), new FifoCartPacker());
+        orderQueue.offer(order(1, 30, 100));
+        orderQueue.offer(order(2, 5, 101));
+
+        // when
+        orderQueue.cancel((short) 1);
+        orderQueue.offer(order(3, 30, 102));
+
+        // then
+        assertEquals(List.of(order(2, 5, 101), order(3, 30, 102)), orderQueue.toList());
+    }
+
+    @Test
+    public void testRebuildAppliesPolicy() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new AgingPolicy(Duration.ofSeconds(60)), new FifoCartPacker());
+        OrderSummary order1 = order(20, 10, 100);
+        OrderSummary order2 = order(5000, 10, 0);
+        doAnswer(invocation -> {
+            List.of(order1, order2).forEach(invocation.<Consumer<OrderSummary>>getArgument(0));
+            return null;
+        }).when(orderStore).load(any());
+
+        // when
+        orderQueue.rebuild();
+
+        // then
+        assertEquals(List.of(order2, order1), orderQueue.toList());
+        assertEquals(5, orderQueue.waitTime(order1));
+    }
+
+    @Test
+    public void testOfferExistingCustomer() {
+        // given
+        orderQueue.offer(order(20, 25, 1));
+
+        // when/then
+        assertFalse(orderQueue.offer(order(20, 10, 2)));
+        assertEquals(1, orderQueue.size());
+    }
+
+    @Test
+    public void testCancel() {
+        // given
+        OrderSummary order1 = order(10000, 20, 1);
+        OrderSummary order2 = order(20, 25, 2);
+        orderQueue.offer(order1);
+        orderQueue.offer(order2);
+
+        // when
+        OrderSummary cancelledOrder = orderQueue.cancel((short) 20);
+
+        // then
+        assertEquals(order2, cancelledOrder);
+        assertFalse(orderQueue.contains((short) 20));
+        assertEquals(List.of(order1), orderQueue.toList());
+        assertNull(orderQueue.cancel((short) 20));
+    }
+
+    @Test
+    public void testPeekAndPoll() {
+        // given
+        OrderSummary order1 = order(10000, 20, 1);
+        OrderSummary order2 = order(20, 25, 2);
+        orderQueue.offer(order1);
+        orderQueue.offer(order2);
+
+        // when/then
+        assertEquals(order2, orderQueue.peek());
+        assertEquals(order2, orderQueue.poll());
+        assertEquals(order1, orderQueue.poll());
+        assertNull(orderQueue.peek());
+        assertNull(orderQueue.poll());
+        assertEquals(0, orderQueue.size());
+    }
+
+    @Test
+    public void testPosition() {
+        // given
+        OrderSummary order1 = order(10000, 20, 1);
+        OrderSummary order2 = order(5000, 10, 2);
+        OrderSummary order3 = order(20, 25, 5);
+        OrderSummary order4 = order(300, 15, 4);
+        List.of(order1, order2, order3, order4).forEach(orderQueue::offer);
+
+        // when/then
+        assertEquals(1, orderQueue.position(order4));
+        assertEquals(2, orderQueue.position(order3));
+        assertEquals(3, orderQueue.position(order1));
+        assertEquals(4, orderQueue.position(order2));
+    }
+
+    @Test
+    public void testWaitTime() {
+        // given
+        OrderSummary order1 = order(20, 25, 1);
+        OrderSummary order2 = order(300, 15, 2);
+        OrderSummary order3 = order(600, 30, 3);
+        OrderSummary order4 = order(400, 15, 4);
+        OrderSummary currentOrder = order(10000, 20, 0);
+        List.of(order1, order2, order3, order4, currentOrder).forEach(orderQueue::offer);
+
+        // when/then
+        assertEquals(5, orderQueue.waitTime(order1));
+        assertEquals(5, orderQueue.waitTime(order2));
+        assertEquals(10, orderQueue.waitTime(order3));
+        assertEquals(10, orderQueue.waitTime(order4));
+        assertEquals(15, orderQueue.waitTime(currentOrder));
+    }
+
+    @Test
+    public void testWaitTimeAfterCancel() {
+        // given
+        OrderSummary order1 = order(20, 25, 1);
+        OrderSummary order2 = order(300, 15, 2);
+        OrderSummary order3 = order(600, 30, 3);
+        OrderSummary order4 = order(10000, 20, 0);
+        List.of(order1, order2, order3, order4).forEach(orderQueue::offer);
+
+        // when
+        orderQueue.cancel((short) 300);
+
+        // then
+        assertEquals(5, orderQueue.waitTime(order1));
+        assertEquals(10, orderQueue.waitTime(order3));
+        assertEquals(10, orderQueue.waitTime(order4));
+    }
+
+    @Test
+    public void testWaitTimeFollowsCartPacker() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new StrictPriorityPolicy(), new LookAheadCartPacker(64));
+        OrderSummary order1 = order(1, 20, 1);
+        OrderSummary order2 = order(2, 40, 2);
+        OrderSummary order3 = order(3, 20, 3);
+        OrderSummary order4 = order(4, 10, 4);
+        List.of(order1, order2, order3, order4).forEach(orderQueue::offer);
+
+        // when/then
+        assertEquals(5, orderQueue.waitTime(order1));
+        assertEquals(10, orderQueue.waitTime(order2));
+        assertEquals(5, orderQueue.waitTime(order3));
+        assertEquals(5, orderQueue.waitTime(order4));
+        assertEquals(5, orderQueue.page(Pageable.unpaged()).getContent().get(3).waitTime());
+        assertEquals(5, (int) orderQueue.<Integer>status((short) 3, (id, quantity, position, waitTime) -> waitTime));
+        assertEquals(List.of(order1, order3, order4), orderQueue.pollNextCart());
+        assertEquals(5, orderQueue.waitTime(order2));
+    }
+
+    @Test
+    public void testWaitTimeMatchesDispatchedCarts() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new StrictPriorityPolicy(), new KnapsackCartPacker(8));
+        Random random = new Random(11);
+        for (int customerId = 1; customerId <= 200; customerId ++) {
+            orderQueue.offer(order(customerId, 1 + random.nextInt(Constant.CART_CAPACITY), customerId));
+        }
+        List<OrderSummary> queue = orderQueue.toList();
+        List<Integer> waitTimes = queue.stream().map(orderQueue::waitTime).toList();
+
+        // when
+        List<Integer> dispatchTimes = new ArrayList<>(waitTimes);
+        for (int cartNumber = 1; orderQueue.size() > 0; cartNumber ++) {
+            for (OrderSummary order : orderQueue.pollNextCart()) {
+                dispatchTimes.set(queue.indexOf(order), Constant.DELIVERY_TIME * cartNumber);
+            }
+        }
+
+        // then
+        assertEquals(dispatchTimes, waitTimes);
+    }
+
+    @Test
+    public void testPage() {
+        // given
+        OrderSummary order1 = order(20, 25, 1);
+        OrderSummary order2 = order(300, 15, 2);
+        OrderSummary order3 = order(600, 30, 3);
+        OrderSummary order4 = order(10000, 20, 0);
+        List.of(order1, order2, order3, order4).forEach(orderQueue::offer);
+
+        // when
+        Page<QueueEntry> page = orderQueue.page(Pageable.ofSize(2).withPage(1));
+
+        // then
+        assertEquals(List.of(
+                new QueueEntry((short) 600, (short) 30, 3, 0, 3, 10),
+                new QueueEntry((short) 10000, (short) 20, 0, 1, 4, 10)), page.getContent());
+        assertEquals(4, page.getTotalElements());
+        assertTrue(orderQueue.page(Pageable.ofSize(2).withPage(2)).getContent().isEmpty());
+        assertEquals(4, orderQueue.page(Pageable.unpaged()).getContent().size());
+    }
+
+    @Test
+    public void testEntriesAfter() {
+        // given
+        OrderSummary order1 = order(20, 25, 1);
+        OrderSummary order2 = order(300, 15, 2);
+        OrderSummary order3 = order(10000, 30, 0);
+        OrderSummary order4 = order(5000, 20, 1);
+        List.of(order1, order2, order3, order4).forEach(orderQueue::offer);
+
+        // when
+        List<QueueEntry> firstChunk = orderQueue.entriesAfter(null, 2);
+        orderQueue.cancel((short) 20);
+        List<QueueEntry> secondChunk = orderQueue.entriesAfter(QueueCursor.of(firstChunk.get(1)), 2);
+
+        // then
+        assertEquals(List.of((short) 20, (short) 300), firstChunk.stream().map(QueueEntry::customerId).toList());
+        assertEquals(List.of((short) 10000, (short) 5000), secondChunk.stream().map(QueueEntry::customerId).toList());
+        assertEquals(2, secondChunk.get(0).position());
+        assertTrue(orderQueue.entriesAfter(QueueCursor.of(secondChunk.get(1)), 2).isEmpty());
+    }
+
+    @Test
+    public void testNextCart() {
+        // given
+        OrderSummary order1 = order(1, 20, 1);
+        OrderSummary order2 = order(2, 25, 2);
+        OrderSummary order3 = order(3, 15, 3);
+        List.of(order1, order2, order3).forEach(orderQueue::offer);
+
+        // when/then
+        assertEquals(List.of(order1, order2), orderQueue.nextCart());
+        assertEquals(3, orderQueue.size());
+    }
+
+    @Test
+    public void testNextCartFilledExactly() {
+        // given
+        OrderSummary order1 = order(1, 20, 1);
+        OrderSummary order2 = order(2, 30, 2);
+        OrderSummary order3 = order(3, 1, 3);
+        List.of(order1, order2, order3).forEach(orderQueue::offer);
+
+        // when/then
+        assertEquals(List.of(order1, order2), orderQueue.nextCart());
+        assertEquals(5, orderQueue.waitTime(order2));
+    }
+
+    @Test
+    public void testPollNextCartSkipsAhead() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new StrictPriorityPolicy(), new KnapsackCartPacker(64));
+        OrderSummary order1 = order(1, 20, 1);
+        OrderSummary order2 = order(2, 25, 2);
+        OrderSummary order3 = order(3, 20, 3);
+        OrderSummary order4 = order(5000, 10, 0);
+        List.of(order1, order2, order3, order4).forEach(orderQueue::offer);
+
+        // when
+        List<OrderSummary> cart = orderQueue.pollNextCart();
+
+        // then
+        assertEquals(List.of(order1, order3, order4), cart);
+        assertEquals(List.of(order2), orderQueue.toList());
+        assertEquals(1, orderQueue.position(order2));
+        assertEquals(0, orderQueue.regularSize());
+    }
+
+    @Test
+    public void testTakeChangesTracksFirstChangedPosition() {
+        // given
+        List.of(order(1, 20, 1), order(2, 25, 2), order(3, 15, 3), order(4, 30, 4)).forEach(orderQueue::offer);
+        long version = orderQueue.takeChanges().version();
+
+        // when
+        orderQueue.cancel((short) 3);
+        orderQueue.offer(order(5, 10, 5));
+        QueueChanges changes = orderQueue.takeChanges();
+
+        // then
+        assertEquals(new QueueChanges(version, version + 2, 0, 0, 2), changes);
+        assertEquals(new QueueChanges(version + 2, version + 2, 0, 0, Integer.MAX_VALUE), orderQueue.takeChanges());
+    }
+
+    @Test
+    public void testTakeChangesCountsDispatchedCarts() {
+        // given
+        List.of(order(1, 20, 1), order(2, 25, 2), order(3, 15, 3), order(4, 30, 4), order(5, 10, 5))
+                .forEach(orderQueue::offer);
+        orderQueue.takeChanges();
+
+        // when
+        orderQueue.cancel((short) 5);
+        orderQueue.pollNextCart();
+        QueueChanges changes = orderQueue.takeChanges();
+
+        // then
+        assertEquals(2, changes.dispatched());
+        assertEquals(1, changes.dispatchedCarts());
+        assertEquals(2, changes.firstChanged());
+        assertEquals(1, orderQueue.position(order(3, 15, 3)));
+        assertEquals(5, orderQueue.waitTime(order(3, 15, 3)));
+    }
+
+    @Test
+    public void testTakeChangesWithoutNextFitPacker() {
+        // given
+        orderQueue = new OrderQueue(orderStore, new StrictPriorityPolicy(), new LookAheadCartPacker(64));
+        List.of(order(1, 20, 1), order(2, 40, 2), order(3, 20, 3)).forEach(orderQueue::offer);
+        orderQueue.takeChanges();
+
+        // when
+        orderQueue.offer(order(4, 10, 4));
+        QueueChanges changes = orderQueue.takeChanges();
+
+        // then
+        assertEquals(0, changes.firstChanged());
+    }
+
+    @Test
+    public void testPollNextCart() {
+        // given
+        OrderSummary order1 = order(1, 20, 1);
+        OrderSummary order2 = order(2, 25, 2);
+        OrderSummary order3 = order(3, 15, 3);
+        List.of(order1, order2, order3).forEach(orderQueue::offer);
+
+        // when
+        List<OrderSummary> cart = orderQueue.pollNextCart();
+
+        // then
+        assertEquals(List.of(order1, order2), cart);
+        assertEquals(List.of(order3), orderQueue.toList());
+        assertEquals(1, orderQueue.position(order3));
+        assertEquals(5, orderQueue.waitTime(order3));
+        assertEquals(List.of(order3), orderQueue.pollNextCart());
+        assertTrue(orderQueue.pollNextCart().isEmpty());
+    }
+
+    @Test
+    public void testSnapshotIsSharedUntilQueueChanges() {
+        // given
+        OrderSummary order1 = order(1, 20, 1);
+        OrderSummary order2 = order(2, 25, 2);
+        orderQueue.offer(order1);
+        QueueSnapshot snapshot = orderQueue.snapshot();
+
+        // when
+        QueueSnapshot unchangedSnapshot = orderQueue.snapshot();
+        orderQueue.offer(order2);
+        QueueSnapshot changedSnapshot = orderQueue.snapshot();
+
+        // then
+        assertSame(snapshot, unchangedSnapshot);
+        assertNotSame(snapshot, changedSnapshot);
+        assertTrue(changedSnapshot.version() > snapshot.version());
+        assertEquals(changedSnapshot.version(), orderQueue.version());
+        assertEquals(List.of(order1), snapshot.nextCart());
+        assertEquals(List.of(order1, order2), changedSnapshot.nextCart());
+    }
+
+    @Test
+    public void testSnapshotIsTakenOncePerVersion() throws Exception {
+        // given
+        orderQueue.offer(order(1, 20, 1));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<Future<QueueSnapshot>> snapshots = new ArrayList<>();
+        for (int i = 0; i < 8; i ++) {
+            snapshots.add(executor.submit(() -> {
+                start.await();
+                return orderQueue.snapshot();
+            }));
+        }
+        start.countDown();
+
+        // then
+        QueueSnapshot snapshot = snapshots.get(0).get();
+        for (Future<QueueSnapshot> other : snapshots) {
+            assertSame(snapshot, other.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testVersionOnlyChangesOnWrites() {
+        // given
+        orderQueue.offer(order(1, 20, 1));
+        long version = orderQueue.version();
+
+        // when
+        orderQueue.offer(order(1, 10, 2));
+        orderQueue.cancel((short) 2);
+        orderQueue.nextCart();
+
+        // then
+        assertEquals(version, orderQueue.version());
+        orderQueue.cancel((short) 1);
+        assertEquals(version + 1, orderQueue.version());
+    }
+
+    @Test
+    public void testClaimAndRelease() {
+        // when/then
+        assertTrue(orderQueue.claim((short) 20));
+        assertFalse(orderQueue.claim((short) 20));
+        orderQueue.release((short) 20);
+        assertTrue(orderQueue.claim((short) 20));
+    }
+
+    @Test
+    public void testStatus() {
+        // given
+        List.of(order(20, 25, 1), order(300, 15, 2), order(600, 30, 3), order(10000, 20, 0))
+                .forEach(orderQueue::offer);
+        Short customerId = 600;
+
+        // when
+        QueueEntry status = orderQueue.status(customerId,
+                (id, quantity, position, waitTime) -> new QueueEntry(id, quantity, 0, 0, position, waitTime));
+
+        // then
+        assertEquals(new QueueEntry(customerId, (short) 30, 0, 0, 3, 10), status);
+        assertNull(orderQueue.status((short) 601, (id, quantity, position, waitTime) -> id));
+    }
+
+    @Test
+    public void testTierSizesAndDonuts() {
+        // given
+        List.of(order(20, 25, 1), order(300, 15, 2), order(10000, 20, 0)).forEach(orderQueue::offer);
+
+        // when
+        orderQueue.cancel((short) 300);
+
+        // then
+        assertEquals(1, orderQueue.premiumSize());
+        assertEquals(1, orderQueue.regularSize());
+        assertEquals(45, orderQueue.donuts());
+    }
+}
@@ -0,0 +1,142 @@
+package com.demo.donutpriorityqueue.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderStatisticTreeTest {
+    private final OrderTable orders = new OrderTable();
+    private final OrderStatisticTree tree = new OrderStatisticTree(orders);
+
+    private short order(int customerId, int quantity, long timestamp) {
+        return order(customerId, quantity, timestamp, 0);
+    }
+
+    private short order(int customerId, int quantity, long timestamp, long key) {
+        orders.put((short) customerId, (short) quantity, timestamp, key);
+        return (short) customerId;
+    }
+
+    @Test
+    public void testRank() {
+        // given
+        short order1 = order(1, 10, 3);
+        short order2 = order(2, 20, 1);
+        short order3 = order(3, 30, 2);
+        List.of(order1, order2, order3).forEach(tree::add);
+
+        // when/then
+        assertEquals(0, tree.rank(0, 1, order2));
+        assertEquals(1, tree.rank(0, 2, order3));
+        assertEquals(2, tree.rank(0, 3, order1));
+        assertEquals(1, tree.rankAfter(0, 1, order2));
+        assertEquals(3, tree.rankAfter(0, 3, order1));
+        assertEquals(List.of(2, 3, 1), toList(tree));
+    }
+
+    @Test
+    public void testServiceKeyBeforeTierAndTimestamp() {
+        // given
+        short order1 = order(10000, 10, 1, 5);
+        short order2 = order(20, 20, 2, 5);
+        short order3 = order(5000, 30, 3, 4);
+        short order4 = order(300, 40, 0, 6);
+
+        // when
+        List.of(order1, order2, order3, order4).forEach(tree::add);
+
+        // then
+        assertEquals(List.of(5000, 20, 10000, 300), toList(tree));
+        assertEquals(1, tree.rank(5, 2, order2));
+        assertEquals(2, tree.rankAfter(5, 2, order2));
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        // given
+        short order1 = order(1, 10, 1);
+        short order2 = order(2, 20, 1);
+
+        // when/then
+        assertTrue(tree.add(order1));
+        assertFalse(tree.add(order1));
+        assertTrue(tree.add(order2));
+        assertTrue(tree.remove(order1));
+        assertFalse(tree.remove(order1));
+        assertEquals(1, tree.size());
+        assertEquals(order2, tree.pollFirst());
+        assertTrue(tree.isEmpty());
+        assertEquals(OrderTable.NIL, tree.first());
+    }
+
+    @Test
+    public void testTreesSharingATable() {
+        // given
+        OrderStatisticTree otherTree = new OrderStatisticTree(orders);
+        short order1 = order(1, 10, 2);
+        short order2 = order(2, 20, 1);
+        short order3 = order(3, 30, 1);
+
+        // when
+        tree.add(order1);
+        tree.add(order3);
+        otherTree.add(order2);
+
+        // then
+        assertEquals(List.of(3, 1), toList(tree));
+        assertEquals(List.of(2), toList(otherTree));
+        assertFalse(tree.contains(order2));
+        assertFalse(otherTree.contains(order1));
+    }
+
+    @Test
+    public void testMatchesSortedSet() {
+        // given
+        Random random = new Random(42);
+        Comparator<Short> priorityOrder = Comparator
+                .comparingLong((Short customerId) -> orders.key(customerId))
+                .thenComparing(customerId -> !OrderTable.isPremium(customerId))
+                .thenComparingLong(customerId -> orders.timestamp(customerId))
+                .thenComparing(customerId -> customerId);
+        TreeSet<Short> expected = new TreeSet<>(priorityOrder);
+        List<Short> customerIds = new ArrayList<>();
+        for (int customerId = 1; customerId <= 2000; customerId ++) {
+            customerIds.add(order(customerId, random.nextInt(50) + 1, random.nextInt(100), random.nextInt(4)));
+        }
+
+        // when
+        for (short customerId : customerIds) {
+            tree.add(customerId);
+            expected.add(customerId);
+            if (random.nextInt(3) == 0) {
+                short removed = customerIds.get(random.nextInt(customerIds.size()));
+                assertEquals(expected.remove(removed), tree.remove(removed));
+            }
+        }
+
+        // then
+        assertEquals(expected.stream().map(Short::intValue).toList(), toList(tree));
+        int rank = 0;
+        for (short customerId : expected) {
+            assertEquals(rank, tree.rank(orders.key(customerId), orders.timestamp(customerId), customerId));
+            assertEquals(customerId, tree.iterator(rank ++).nextInt());
+        }
+        assertEquals(expected.size(), tree.size());
+    }
+
+    private static List<Integer> toList(OrderStatisticTree tree) {
+        return toList(tree, 0);
+    }
+
+    private static List<Integer> toList(OrderStatisticTree tree, int from) {
+        List<Integer> customerIds = new ArrayList<>();
+        tree.iterator(from).forEachRemaining((int customerId) -> customerIds.add(customerId));
+        return customerIds;
+    }
+}
@@ -0,0 +1,60 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.util.Constant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderTableTest {
+    private final OrderTable orders = new OrderTable();
+
+    @Test
+    public void testPut() {
+        // when/then
+        assertTrue(orders.put((short) 1, (short) 20, 100L, 0L));
+        assertFalse(orders.put((short) 1, (short) 10, 200L, 0L));
+        assertTrue(orders.put((short) Constant.MAX_CUSTOMER_ID, (short) 5, 300L, 0L));
+        assertEquals(20, orders.quantity((short) 1));
+        assertEquals(100L, orders.timestamp((short) 1));
+        assertEquals(2, orders.size());
+        assertEquals(1, orders.premiumSize());
+        assertEquals(25, orders.totalQuantity());
+    }
+
+    @Test
+    public void testRemove() {
+        // given
+        orders.put((short) 1, (short) 20, 100L, 0L);
+
+        // when/then
+        assertTrue(orders.remove((short) 1));
+        assertFalse(orders.remove((short) 1));
+        assertFalse(orders.contains((short) 1));
+        assertEquals(0, orders.size());
+        assertEquals(0, orders.premiumSize());
+        assertEquals(0, orders.totalQuantity());
+    }
+
+    @Test
+    public void testContainsOutOfRange() {
+        // when/then
+        assertFalse(orders.contains((short) 0));
+        assertFalse(orders.contains((short) -1));
+        assertFalse(orders.contains((short) (Constant.MAX_CUSTOMER_ID + 1)));
+    }
+
+    @Test
+    public void testClear() {
+        // given
+        orders.put((short) 1, (short) 20, 100L, 0L);
+        orders.put((short) 2, (short) 25, 100L, 0L);
+
+        // when
+        orders.clear();
+
+        // then
+        assertFalse(orders.contains((short) 1));
+        assertEquals(0, orders.size());
+        assertEquals(0, orders.totalQuantity());
+    }
+}
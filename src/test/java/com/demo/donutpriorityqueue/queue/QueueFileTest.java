@@ -0,0 +1,72 @@
+package com.demo.donutpriorityqueue.queue;
+
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueueFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // given
+        Path path = directory.resolve("queue.snapshot");
+        List<OrderSummary> orders = List.of(
+                new QueuedOrder((short) 300, (short) 15, 2L),
+                new QueuedOrder((short) 20, (short) 25, 3L),
+                new QueuedOrder((short) 10000, (short) 20, 1L));
+
+        // when
+        QueueFile.write(path, 42L, orders);
+
+        // then
+        assertEquals(new QueueFile.Copy(42L, orders), QueueFile.read(path));
+        assertFalse(Files.exists(directory.resolve("queue.snapshot.tmp")));
+    }
+
+    @Test
+    public void testEmptyQueue() throws IOException {
+        // given
+        Path path = directory.resolve("queue.snapshot");
+
+        // when
+        QueueFile.write(path, 0L, List.of());
+
+        // then
+        assertEquals(List.of(), QueueFile.read(path).orders());
+    }
+
+    @Test
+    public void testCorruptFileIsRejected() throws IOException {
+        // given
+        Path path = directory.resolve("queue.snapshot");
+        QueueFile.write(path, 1L, List.of(new QueuedOrder((short) 20, (short) 25, 3L)));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[13] ^= 1;
+        Files.write(path, bytes);
+
+        // when/then
+        assertThrows(IOException.class, () -> QueueFile.read(path));
+    }
+
+    @Test
+    public void testTruncatedFileIsRejected() throws IOException {
+        // given
+        Path path = directory.resolve("queue.snapshot");
+        QueueFile.write(path, 1L, List.of(new QueuedOrder((short) 20, (short) 25, 3L)));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+
+        // when/then
+        assertThrows(IOException.class, () -> QueueFile.read(path));
+    }
+}
@@ -0,0 +1,107 @@
+package com.demo.donutpriorityqueue.queue;
+
+import org.junit.jupiter.api.Test;
+
+import static com.demo.donutpriorityqueue.queue.WeightedFairSharePolicy.DONUT_TIME;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightedFairSharePolicyTest {
+    private final WeightedFairSharePolicy weightedFairSharePolicy = new WeightedFairSharePolicy(3, 1);
+    private final ServiceClock serviceClock = new ServiceClock();
+
+    private long join(boolean premium, int quantity) {
+        long key = weightedFairSharePolicy.key(premium, (short) quantity, 0, serviceClock);
+        weightedFairSharePolicy.commit(premium, (short) quantity, key, serviceClock);
+        return key;
+    }
+
+    @Test
+    public void testTiersAdvanceByWeight() {
+        // when/then
+        assertEquals(0, join(true, 30));
+        assertEquals(10 * DONUT_TIME, join(true, 30));
+        assertEquals(0, join(false, 30));
+        assertEquals(30 * DONUT_TIME, join(false, 30));
+    }
+
+    @Test
+    public void testKeyLeavesClockUnchanged() {
+        // when
+        weightedFairSharePolicy.key(true, (short) 30, 0, serviceClock);
+
+        // then
+        assertEquals(0, serviceClock.finishTime(true));
+        assertEquals(0, join(true, 30));
+    }
+
+    @Test
+    public void testCreditGivesShareBack() {
+        // given
+        join(true, 30);
+        long cancelled = join(true, 30);
+
+        // when
+        weightedFairSharePolicy.credit(true, (short) 30, cancelled, serviceClock);
+
+        // then
+        assertEquals(10 * DONUT_TIME, join(true, 30));
+    }
+
+    @Test
+    public void testCreditKeepsShareOfOrderWithOrdersBehind() {
+        // given
+        long cancelled = join(true, 30);
+        long behind = join(true, 5);
+
+        // when
+        weightedFairSharePolicy.credit(true, (short) 30, cancelled, serviceClock);
+
+        // then
+        assertTrue(join(true, 30) > behind);
+    }
+
+    @Test
+    public void testCommitOfOrderWithOrdersBehindChargesNothing() {
+        // given
+        long restored = join(false, 10);
+        join(false, 10);
+        weightedFairSharePolicy.credit(false, (short) 10, restored, serviceClock);
+
+        // when
+        weightedFairSharePolicy.commit(false, (short) 10, restored, serviceClock);
+
+        // then
+        assertEquals(20 * DONUT_TIME, serviceClock.finishTime(false));
+    }
+
+    @Test
+    public void testCommitOfEarlierKeyChargesShareAgain() {
+        // given
+        join(false, 10);
+        long cancelled = join(false, 10);
+        weightedFairSharePolicy.credit(false, (short) 10, cancelled, serviceClock);
+
+        // when
+        weightedFairSharePolicy.commit(false, (short) 10, cancelled, serviceClock);
+
+        // then
+        assertEquals(20 * DONUT_TIME, serviceClock.finishTime(false));
+    }
+
+    @Test
+    public void testIdleTierStartsAtVirtualTime() {
+        // given
+        join(false, 10);
+        serviceClock.served(100 * DONUT_TIME);
+
+        // when/then
+        assertEquals(100 * DONUT_TIME, weightedFairSharePolicy.key(true, (short) 30, 0, serviceClock));
+        assertEquals(100 * DONUT_TIME, weightedFairSharePolicy.key(false, (short) 30, 0, serviceClock));
+    }
+
+    @Test
+    public void testWeightLessThanOne() {
+        // when/then
+        assertThrows(IllegalArgumentException.class, () -> new WeightedFairSharePolicy(0, 1));
+    }
+}
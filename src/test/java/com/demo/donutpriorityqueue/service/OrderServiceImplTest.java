@@ -4,11 +4,15 @@ import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
 import com.demo.donutpriorityqueue.dto.OrderDeliveryDto;
 import com.demo.donutpriorityqueue.dto.OrderResponse;
 import com.demo.donutpriorityqueue.dto.UpcomingDeliveryDto;
-import com.demo.donutpriorityqueue.repository.OrderRepository;
 import com.demo.donutpriorityqueue.dto.*;
 import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
 import com.demo.donutpriorityqueue.mapper.OrderMapper;
-import com.demo.donutpriorityqueue.util.OrderQueueUtil;
+import com.demo.donutpriorityqueue.metrics.OrderMetrics;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.queue.QueueCursor;
+import com.demo.donutpriorityqueue.queue.QueueEntry;
+import com.demo.donutpriorityqueue.store.OrderStore;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.NoResultException;
 import org.junit.jupiter.api.Test;
@@ -17,9 +21,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -28,11 +37,13 @@ class OrderServiceImplTest {
     @InjectMocks
     private OrderServiceImpl orderService;
     @Mock
-    private OrderRepository orderRepository;
+    private OrderStore orderStore;
     @Mock
     private OrderMapper orderMapper;
     @Mock
-    private OrderQueueUtil orderQueueUtil;
+    private OrderQueue orderQueue;
+    @Mock
+    private OrderMetrics orderMetrics;
 
     @Test
     void testCreateOrder() {
@@ -43,6 +54,7 @@ class OrderServiceImplTest {
                 createOrderRequest.quantity(),
                 1,
                 5);
+        given(orderQueue.claim((short) 11)).willReturn(true);
         given(orderMapper.orderToOrderResponse(any())).willReturn(order);
 
         // when
@@ -50,16 +62,33 @@ class OrderServiceImplTest {
 
         // then
         assertEquals(order, newOrder);
+        verify(orderStore, times(1)).save(any());
+        verify(orderQueue, times(1)).offer(any());
+        verify(orderMetrics, times(1)).recordWaitTime(5);
     }
 
     @Test
     void testCreateExistingOrders() {
         // given
         CreateOrderRequest createOrderRequest = new CreateOrderRequest((short) 11, (short) 10);
-        given(orderRepository.findByCustomerId((short) 11)).willReturn(new Order());
+        given(orderQueue.claim((short) 11)).willReturn(false);
 
         // then
         assertThrows(EntityExistsException.class, () -> orderService.createOrder(createOrderRequest));
+        verify(orderStore, never()).save(any());
+    }
+
+    @Test
+    void testCreateOrderReleasesClaimOnFailure() {
+        // given
+        CreateOrderRequest createOrderRequest = new CreateOrderRequest((short) 11, (short) 10);
+        given(orderQueue.claim((short) 11)).willReturn(true);
+        doThrow(new IllegalStateException("database down")).when(orderStore).save(any());
+
+        // when/then
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(createOrderRequest));
+        verify(orderQueue, times(1)).release((short) 11);
+        verify(orderQueue, never()).offer(any());
     }
 
     @Test
@@ -80,48 +109,92 @@ class OrderServiceImplTest {
         assertThrows(IllegalStateException.class, () -> orderService.createOrder(createOrderRequest));
     }
 
+    @Test
+    void testCreateOrders() {
+        // given
+        List<CreateOrderRequest> createOrderRequests = List.of(
+                new CreateOrderRequest((short) 11, (short) 10),
+                new CreateOrderRequest((short) 12, (short) 60),
+                new CreateOrderRequest((short) 30000, (short) 10),
+                new CreateOrderRequest((short) 13, (short) 20),
+                new CreateOrderRequest((short) 11, (short) 5),
+                new CreateOrderRequest((short) 14, (short) 5));
+        Set<Short> claimedCustomerIds = new HashSet<>(Set.of((short) 13));
+        given(orderQueue.claim(anyShort())).willAnswer(invocation -> claimedCustomerIds.add(invocation.getArgument(0)));
+
+        // when
+        BulkOrderResponse bulkOrderResponse = orderService.createOrders(createOrderRequests);
+
+        // then
+        assertEquals(List.of(HttpStatus.CREATED, HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST,
+                        HttpStatus.CONFLICT, HttpStatus.CONFLICT, HttpStatus.CREATED),
+                bulkOrderResponse.orderResults().stream().map(BulkOrderItemResponse::statusCode).toList());
+        verify(orderStore, times(1)).saveAll(argThat(orders -> orders.size() == 2));
+        verify(orderStore, never()).save(any());
+        verify(orderQueue, times(2)).offer(any());
+        verify(orderMetrics, times(2)).countError(HttpStatus.BAD_REQUEST);
+        verify(orderMetrics, times(2)).countError(HttpStatus.CONFLICT);
+    }
+
     @Test
     void testCancelOrder() {
         // given
-        given(orderRepository.findByCustomerId((short) 1)).willReturn(new Order());
+        given(orderQueue.cancel((short) 1)).willReturn(new Order((short) 1, (short) 20));
 
         // when
         orderService.cancelOrder((short) 1);
 
         // then
-        verify(orderRepository, times(1)).deleteByCustomerId((short) 1);
+        verify(orderStore, times(1)).delete((short) 1);
+        verify(orderQueue, times(1)).release((short) 1);
     }
 
     @Test
     void testCancelNotExistingOrder() {
         // given
-        given(orderRepository.findByCustomerId((short) 1)).willReturn(null);
+        given(orderQueue.cancel((short) 1)).willReturn(null);
 
         // when/then
         assertThrows(NoResultException.class, () -> orderService.cancelOrder((short) 1));
+        verify(orderStore, never()).delete(anyShort());
+        verify(orderQueue, never()).release(anyShort());
+    }
+
+    @Test
+    void testCancelOrderRestoresOrderOnFailure() {
+        // given
+        Order order = new Order((short) 1, (short) 20);
+        given(orderQueue.cancel((short) 1)).willReturn(order);
+        doThrow(new IllegalStateException("database down")).when(orderStore).delete((short) 1);
 
+        // when/then
+        assertThrows(IllegalStateException.class, () -> orderService.cancelOrder((short) 1));
+        verify(orderQueue, times(1)).restore(order);
+        verify(orderQueue, never()).release(anyShort());
     }
 
     @Test
     void testViewOrder() {
         // given
         short customerId = 1;
-        given(orderRepository.findByCustomerId(customerId)).willReturn(new Order());
+        OrderResponse orderResponse = new OrderResponse(customerId, (short) 20, 1, 5);
+        given(orderQueue.status(eq(customerId), any())).willReturn(orderResponse);
 
         // when
-        orderService.viewOrder(customerId);
+        OrderResponse viewedOrder = orderService.viewOrder(customerId);
 
         // then
-        verify(orderRepository, atLeastOnce()).findByCustomerId(customerId);
-        verify(orderMapper, times(1)).orderToOrderResponse(any());
-
+        assertSame(orderResponse, viewedOrder);
+        verifyNoInteractions(orderStore);
+        verify(orderMapper, never()).orderToOrderResponse(any());
+        verify(orderMetrics, times(1)).recordWaitTime(5);
     }
 
     @Test
     void testViewNotExistingOrder() {
         // given
         short customerId = 1;
-        given(orderRepository.findByCustomerId(customerId)).willReturn(null);
+        given(orderQueue.status(eq(customerId), any())).willReturn(null);
 
         // when/then
         assertThrows(NoResultException.class, () -> orderService.viewOrder(customerId));
@@ -136,9 +209,34 @@ class OrderServiceImplTest {
         orderService.viewQueue(pageable);
 
         // then
-        verify(orderQueueUtil, times(1)).getOrderQueue();
-        verify(orderMapper, times(1)).orderResponseListToOrderQueueDto(any(), any());
+        verify(orderQueue, times(1)).page(pageable);
+        verifyNoInteractions(orderStore);
+        verify(orderMapper, times(1)).queueEntryPageToOrderQueueDto(any());
+
+    }
+
+    @Test
+    void testExportQueue() {
+        // given
+        QueueEntry queueEntry1 = new QueueEntry((short) 1, (short) 20, 1, 0, 1, 5);
+        QueueEntry queueEntry2 = new QueueEntry((short) 2000, (short) 25, 1, 1, 2, 5);
+        given(orderQueue.entriesAfter(isNull(), anyInt())).willReturn(List.of(queueEntry1));
+        given(orderQueue.entriesAfter(eq(QueueCursor.of(queueEntry1)), anyInt())).willReturn(List.of(queueEntry2));
+        given(orderQueue.entriesAfter(eq(QueueCursor.of(queueEntry2)), anyInt())).willReturn(List.of());
+        given(orderMapper.queueEntryToOrderResponse(any())).willAnswer(invocation -> {
+            QueueEntry queueEntry = invocation.getArgument(0);
+            return new OrderResponse(queueEntry.customerId(), queueEntry.quantity(), queueEntry.position(),
+                    queueEntry.waitTime());
+        });
 
+        // when
+        List<OrderResponse> orderResponses = orderService.exportQueue().toList();
+
+        // then
+        assertEquals(List.of(
+                new OrderResponse((short) 1, (short) 20, 1, 5),
+                new OrderResponse((short) 2000, (short) 25, 2, 5)), orderResponses);
+        verifyNoInteractions(orderStore);
     }
 
     @Test
@@ -146,14 +244,13 @@ class OrderServiceImplTest {
         // given
         Order order1 = new Order((short) 1, (short) 20);
         Order order2 = new Order((short) 2, (short) 25);
-        Order order3 = new Order((short) 3, (short) 15);
 
-        List<Order> orders = List.of(order1, order2, order3);
+        List<OrderSummary> orders = List.of(order1, order2);
         List<OrderDeliveryDto> expectedDeliveryDto = List.of(
                 new OrderDeliveryDto(order1.getCustomerId(), order1.getQuantity()),
                 new OrderDeliveryDto(order2.getCustomerId(), order2.getQuantity())
         );
-        when(orderQueueUtil.getOrderQueue()).thenReturn(orders);
+        when(orderQueue.nextCart()).thenReturn(orders);
 
         // when
         UpcomingDeliveryDto upcomingDeliveryDto = orderService.viewNextDelivery();
@@ -162,4 +259,63 @@ class OrderServiceImplTest {
         assertEquals(new UpcomingDeliveryDto(expectedDeliveryDto), upcomingDeliveryDto);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testDispatchNextDelivery() {
+        // given
+        Order order1 = new Order((short) 1, (short) 20);
+        Order order2 = new Order((short) 2, (short) 25);
+        when(orderQueue.pollNextCart()).thenReturn(List.of(order1, order2));
+
+        // when
+        UpcomingDeliveryDto upcomingDeliveryDto = orderService.dispatchNextDelivery();
+
+        // then
+        assertEquals(new UpcomingDeliveryDto(List.of(
+                new OrderDeliveryDto(order1.getCustomerId(), order1.getQuantity()),
+                new OrderDeliveryDto(order2.getCustomerId(), order2.getQuantity()))), upcomingDeliveryDto);
+        verify(orderStore, times(1)).deleteAll(List.of((short) 1, (short) 2));
+        verify(orderStore, never()).delete(anyShort());
+        verify(orderQueue, times(1)).release((short) 1);
+        verify(orderQueue, times(1)).release((short) 2);
+        verify(orderMetrics, times(2)).recordDispatch(anyLong());
+        verify(orderMetrics, times(1)).recordCart(45);
+    }
+
+    @Test
+    void testDispatchEmptyQueue() {
+        // given
+        when(orderQueue.pollNextCart()).thenReturn(List.of());
+
+        // when
+        UpcomingDeliveryDto upcomingDeliveryDto = orderService.dispatchNextDelivery();
+
+        // then
+        assertEquals(new UpcomingDeliveryDto(List.of()), upcomingDeliveryDto);
+        verify(orderStore, never()).deleteAll(any());
+    }
+
+    @Test
+    void testDispatchRestoresCartOnFailure() {
+        // given
+        Order order1 = new Order((short) 1, (short) 20);
+        when(orderQueue.pollNextCart()).thenReturn(List.of(order1));
+        doThrow(new IllegalStateException("database down")).when(orderStore).deleteAll(any());
+
+        // when/then
+        assertThrows(IllegalStateException.class, () -> orderService.dispatchNextDelivery());
+        verify(orderQueue, times(1)).restoreCart(List.of(order1));
+        verify(orderQueue, never()).release(anyShort());
+        verify(orderMetrics, never()).recordDispatch(anyLong());
+        verify(orderMetrics, never()).recordCart(anyInt());
+    }
+
+    @Test
+    void testQueueVersion() {
+        // given
+        when(orderQueue.version()).thenReturn(42L);
+
+        // when/then
+        assertEquals(42L, orderService.queueVersion());
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.demo.donutpriorityqueue.service;
+
+import com.demo.donutpriorityqueue.dto.OrderResponse;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
+import com.demo.donutpriorityqueue.queue.QueueChanges;
+import com.demo.donutpriorityqueue.util.Constant;
+import jakarta.persistence.NoResultException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderUpdateServiceImplTest {
+    @InjectMocks
+    private OrderUpdateServiceImpl orderUpdateService;
+    @Mock
+    private OrderQueue orderQueue;
+
+    @AfterEach
+    void stop() {
+        orderUpdateService.stop();
+    }
+
+    @Test
+    void testSubscribe() {
+        // given
+        short customerId = 1;
+        given(orderQueue.status(eq(customerId), any())).willReturn(new OrderResponse(customerId, (short) 20, 1, 5));
+
+        // when
+        orderUpdateService.subscribe(customerId);
+        orderUpdateService.subscribe(customerId);
+
+        // then
+        assertEquals(1, orderUpdateService.subscriptionCount());
+    }
+
+    @Test
+    void testSubscribeNotExistingOrder() {
+        // when/then
+        assertThrows(NoResultException.class, () -> orderUpdateService.subscribe((short) 1));
+        assertEquals(0, orderUpdateService.subscriptionCount());
+    }
+
+    @Test
+    void testPublishOnlyWhenQueueChanged() {
+        // given
+        short customerId = 1;
+        given(orderQueue.status(eq(customerId), any())).willReturn(new OrderResponse(customerId, (short) 20, 1, 5));
+        given(orderQueue.version()).willReturn(1L);
+        given(orderQueue.takeChanges()).willReturn(new QueueChanges(0L, 1L, 0, 0, 0));
+        orderUpdateService.subscribe(customerId);
+
+        // when
+        orderUpdateService.publishChanges();
+        orderUpdateService.publishChanges();
+
+        // then
+        // once on subscribe, once for the version
+        verify(orderQueue, times(1)).takeChanges();
+        verify(orderQueue, times(2)).status(eq(customerId), any());
+    }
+
+    @Test
+    void testStatusAheadOfChangesIsNotLookedUp() {
+        // given
+        short customerId = 1;
+        OrderResponse orderResponse = new OrderResponse(customerId, (short) 20, 3, 5);
+        given(orderQueue.status(eq(customerId), any())).willReturn(orderResponse);
+        given(orderQueue.version()).willReturn(1L, 1L, 2L);
+        given(orderQueue.takeChanges()).willReturn(new QueueChanges(1L, 2L, 0, 0, 3));
+        orderUpdateService.subscribe(customerId);
+
+        // when
+        orderUpdateService.publishChanges();
+
+        // then
+        verify(orderQueue, times(1)).status(eq(customerId), any());
+        assertEquals(orderResponse, lastSent(customerId));
+    }
+
+    @Test
+    void testDispatchMovesStatusUp() {
+        // given
+        short customerId = 1;
+        given(orderQueue.status(eq(customerId), any())).willReturn(new OrderResponse(customerId, (short) 20, 10,
+                3 * Constant.DELIVERY_TIME));
+        given(orderQueue.version()).willReturn(1L, 1L, 2L);
+        given(orderQueue.takeChanges()).willReturn(new QueueChanges(1L, 2L, 4, 1, 7));
+        orderUpdateService.subscribe(customerId);
+
+        // when
+        orderUpdateService.publishChanges();
+
+        // then
+        verify(orderQueue, times(1)).status(eq(customerId), any());
+        assertEquals(new OrderResponse(customerId, (short) 20, 6, 2 * Constant.DELIVERY_TIME), lastSent(customerId));
+    }
+
+    @Test
+    void testStatusBehindChangeIsLookedUp() {
+        // given
+        short customerId = 1;
+        given(orderQueue.status(eq(customerId), any())).willReturn(new OrderResponse(customerId, (short) 20, 10, 15),
+                new OrderResponse(customerId, (short) 20, 11, 15));
+        given(orderQueue.version()).willReturn(1L, 1L, 2L);
+        given(orderQueue.takeChanges()).willReturn(new QueueChanges(1L, 2L, 0, 0, 9));
+        orderUpdateService.subscribe(customerId);
+
+        // when
+        orderUpdateService.publishChanges();
+
+        // then
+        verify(orderQueue, times(2)).status(eq(customerId), any());
+        assertEquals(new OrderResponse(customerId, (short) 20, 11, 15), lastSent(customerId));
+    }
+
+    @Test
+    void testStatusTakenWhileQueueMovedIsLookedUp() {
+        // given
+        short customerId = 1;
+        given(orderQueue.status(eq(customerId), any())).willReturn(new OrderResponse(customerId, (short) 20, 1, 5));
+        // the queue moved while the status was read on subscribe
+        given(orderQueue.version()).willReturn(1L, 2L, 3L);
+        given(orderQueue.takeChanges()).willReturn(new QueueChanges(1L, 3L, 0, 0, Integer.MAX_VALUE));
+        orderUpdateService.subscribe(customerId);
+
+        // when
+        orderUpdateService.publishChanges();
+
+        // then
+        verify(orderQueue, times(2)).status(eq(customerId), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private OrderResponse lastSent(short customerId) {
+        Map<Short, ?> subscriptions = (Map<Short, ?>) ReflectionTestUtils.getField(orderUpdateService,
+                "subscriptions");
+        return (OrderResponse) ReflectionTestUtils.getField(subscriptions.get(customerId), "lastSent");
+    }
+}
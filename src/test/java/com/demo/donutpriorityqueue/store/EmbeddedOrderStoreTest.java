@@ -0,0 +1,139 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.store.OrderJournal.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmbeddedOrderStoreTest {
+    @TempDir
+    Path directory;
+
+    private EmbeddedOrderStore open() throws IOException {
+        EmbeddedOrderStore store = new EmbeddedOrderStore();
+        ReflectionTestUtils.setField(store, "snapshotPath", directory.resolve("order.snapshot").toString());
+        ReflectionTestUtils.setField(store, "journalPath", directory.resolve("order.journal").toString());
+        store.open();
+        return store;
+    }
+
+    private static List<String> load(EmbeddedOrderStore store) {
+        List<String> orders = new ArrayList<>();
+        store.load(order -> orders.add(order.getCustomerId() + ":" + order.getQuantity() + "@" + order.getTimestamp()));
+        return orders;
+    }
+
+    @Test
+    public void testLoadInQueueOrder() throws IOException {
+        // given
+        EmbeddedOrderStore store = open();
+
+        // when
+        store.save(new Order((short) 10000, (short) 20, 1L));
+        store.saveAll(List.of(new Order((short) 20, (short) 25, 3L), new Order((short) 300, (short) 15, 2L)));
+        store.save(new Order((short) 5000, (short) 10, 1L));
+        store.deleteAll(List.of((short) 5000));
+
+        // then
+        assertEquals(List.of("300:15@2", "20:25@3", "10000:20@1"), load(store));
+        store.close();
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        // given
+        EmbeddedOrderStore store = open();
+        store.save(new Order((short) 1, (short) 20, 1L));
+        store.save(new Order((short) 2, (short) 30, 2L));
+        store.delete((short) 1);
+        store.close();
+
+        // when
+        EmbeddedOrderStore reopened = open();
+
+        // then
+        assertEquals(List.of("2:30@2"), load(reopened));
+        assertEquals(0, Files.size(directory.resolve("order.journal")));
+        reopened.close();
+    }
+
+    @Test
+    public void testVersionSurvivesReopen() throws IOException {
+        // given
+        EmbeddedOrderStore store = open();
+        store.save(new Order((short) 1, (short) 20, 1L));
+        store.saveAll(List.of(new Order((short) 2, (short) 30, 2L), new Order((short) 3, (short) 10, 3L)));
+        long version = store.version();
+        store.close();
+
+        // when
+        EmbeddedOrderStore reopened = open();
+        long reopenedVersion = reopened.version();
+        reopened.delete((short) 1);
+
+        // then
+        assertEquals(3, version);
+        assertEquals(version, reopenedVersion);
+        assertEquals(4, reopened.version());
+        reopened.close();
+    }
+
+    @Test
+    public void testSlotOccupancyDoesNotDependOnQuantity() throws IOException {
+        // given
+        EmbeddedOrderStore store = open();
+        store.save(new Order((short) 1, (short) 0, 1L));
+        store.close();
+
+        // when
+        EmbeddedOrderStore reopened = open();
+
+        // then
+        assertEquals(List.of("1:0@1"), load(reopened));
+        reopened.close();
+    }
+
+    @Test
+    public void testLogIsReplayedOnOpen() throws IOException {
+        // given
+        open().close();
+        // writes forced to the log, the process died before the snapshot was written back
+        try (OrderJournal journal = new OrderJournal(directory.resolve("order.journal"))) {
+            journal.sync(journal.append(List.of(
+                    new Entry(OrderJournal.SAVE, (short) 1, (short) 20, 1L),
+                    new Entry(OrderJournal.SAVE, (short) 2, (short) 25, 2L),
+                    Entry.delete((short) 1))));
+        }
+
+        // when
+        EmbeddedOrderStore store = open();
+
+        // then
+        assertEquals(List.of("2:25@2"), load(store));
+        store.close();
+    }
+
+    @Test
+    public void testForeignSnapshotIsRejected() throws IOException {
+        // given
+        try (FileChannel channel = FileChannel.open(directory.resolve("order.snapshot"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4}));
+        }
+
+        // when/then
+        assertThrows(IllegalStateException.class, this::open);
+    }
+}
@@ -0,0 +1,78 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JpaOrderStoreTest {
+    @InjectMocks
+    private JpaOrderStore jpaOrderStore;
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Test
+    void testSave() {
+        // given
+        Order order = new Order((short) 1, (short) 20);
+
+        // when
+        jpaOrderStore.save(order);
+
+        // then
+        verify(orderRepository, times(1)).save(order);
+    }
+
+    @Test
+    void testDeleteWithoutLoading() {
+        // when
+        jpaOrderStore.delete((short) 1);
+
+        // then
+        verify(orderRepository, times(1)).deleteAllByCustomerIdIn(List.of((short) 1));
+        verify(orderRepository, never()).findByCustomerId(anyShort());
+    }
+
+    @Test
+    void testLoad() {
+        // given
+        Order order1 = new Order((short) 1, (short) 20);
+        Order order2 = new Order((short) 2000, (short) 25);
+        Stream<OrderSummary> summaries = Stream.of(order1, order2);
+        given(orderRepository.streamAllSummariesInQueueOrder()).willReturn(summaries);
+        List<OrderSummary> loaded = new ArrayList<>();
+
+        // when
+        jpaOrderStore.load(loaded::add);
+
+        // then
+        assertEquals(List.of(order1, order2), loaded);
+    }
+
+    @Test
+    void testVersion() {
+        // given
+        given(orderRepository.findStoreVersion()).willReturn(12345L);
+
+        // when
+        long version = jpaOrderStore.version();
+
+        // then
+        assertEquals(12345L, version);
+        verify(orderRepository, never()).streamAllSummariesInQueueOrder();
+    }
+}
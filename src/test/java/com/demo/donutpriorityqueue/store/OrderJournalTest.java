@@ -0,0 +1,102 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.store.OrderJournal.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderJournalTest {
+    @TempDir
+    Path directory;
+
+    private static List<Entry> replay(OrderJournal journal) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        journal.replay(entries::add);
+        return entries;
+    }
+
+    @Test
+    public void testAppendAndReplay() throws IOException {
+        // given
+        Path path = directory.resolve("order.journal");
+        Entry save = new Entry(OrderJournal.SAVE, (short) 20, (short) 25, 100L);
+        Entry delete = Entry.delete((short) 20);
+
+        // when
+        try (OrderJournal journal = new OrderJournal(path)) {
+            journal.sync(journal.append(List.of(save)));
+            journal.sync(journal.append(List.of(delete)));
+        }
+
+        // then
+        try (OrderJournal journal = new OrderJournal(path)) {
+            assertEquals(List.of(save, delete), replay(journal));
+            assertEquals(2L * OrderJournal.ENTRY_SIZE, journal.size());
+        }
+    }
+
+    @Test
+    public void testUndoIsReplayed() throws IOException {
+        // given
+        Path path = directory.resolve("order.journal");
+        Entry save = new Entry(OrderJournal.SAVE, (short) 20, (short) 25, 100L);
+
+        // when
+        try (OrderJournal journal = new OrderJournal(path)) {
+            journal.sync(journal.append(List.of(save, Entry.undo((short) 20))));
+        }
+
+        // then
+        try (OrderJournal journal = new OrderJournal(path)) {
+            assertEquals(List.of(save, Entry.undo((short) 20)), replay(journal));
+        }
+    }
+
+    @Test
+    public void testTornEntryIsCutOff() throws IOException {
+        // given
+        Path path = directory.resolve("order.journal");
+        Entry save = new Entry(OrderJournal.SAVE, (short) 20, (short) 25, 100L);
+        try (OrderJournal journal = new OrderJournal(path)) {
+            journal.sync(journal.append(List.of(save, save)));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(OrderJournal.ENTRY_SIZE + 5);
+        }
+
+        // when
+        try (OrderJournal journal = new OrderJournal(path)) {
+            journal.sync(journal.append(List.of(Entry.delete((short) 20))));
+        }
+
+        // then
+        try (OrderJournal journal = new OrderJournal(path)) {
+            assertEquals(List.of(save, Entry.delete((short) 20)), replay(journal));
+        }
+    }
+
+    @Test
+    public void testTruncateIf() throws IOException {
+        // given
+        try (OrderJournal journal = new OrderJournal(directory.resolve("order.journal"))) {
+            long position = journal.append(List.of(Entry.delete((short) 1)));
+            journal.sync(position);
+
+            // when/then
+            assertFalse(journal.truncateIf(() -> false));
+            assertTrue(journal.truncateIf(() -> true));
+            assertEquals(0, journal.size());
+            assertEquals(List.of(), replay(journal));
+            // positions keep growing, so an entry after the truncation is forced again
+            assertTrue(journal.append(List.of(Entry.delete((short) 2))) > position);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.demo.donutpriorityqueue.store;
+
+import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.store.OrderJournal.Entry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindOrderStoreTest {
+    @InjectMocks
+    private WriteBehindOrderStore writeBehindOrderStore;
+    @Mock
+    private JpaOrderStore jpaOrderStore;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @TempDir
+    Path directory;
+
+    private void start() throws IOException {
+        // not every test flushes
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        ReflectionTestUtils.setField(writeBehindOrderStore, "journalPath",
+                directory.resolve("order.journal").toString());
+        writeBehindOrderStore.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        writeBehindOrderStore.stop();
+    }
+
+    @Test
+    void testWritesAreFlushedInOrder() throws IOException {
+        // given
+        start();
+
+        // when
+        writeBehindOrderStore.save(new Order((short) 1, (short) 20, 100L));
+        writeBehindOrderStore.delete((short) 1);
+
+        // then
+        verify(jpaOrderStore, timeout(5000)).deleteAll(List.of((short) 1));
+        var inOrder = inOrder(jpaOrderStore);
+        inOrder.verify(jpaOrderStore).saveAll(argThat(orders -> orders.size() == 1
+                && orders.get(0).getCustomerId() == 1 && orders.get(0).getTimestamp() == 100L));
+        inOrder.verify(jpaOrderStore).deleteAll(List.of((short) 1));
+    }
+
+    @Test
+    void testFailedFlushIsRetried() throws IOException {
+        // given
+        start();
+        doThrow(new IllegalStateException("database down")).doNothing().when(jpaOrderStore).saveAll(any());
+
+        // when
+        writeBehindOrderStore.save(new Order((short) 1, (short) 20, 100L));
+
+        // then
+        verify(jpaOrderStore, timeout(5000).times(2)).saveAll(any());
+    }
+
+    @Test
+    void testRejectedWriteIsSetAside() throws IOException {
+        // given
+        start();
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            if (orders.stream().anyMatch(order -> order.getCustomerId() == 1)) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return null;
+        }).when(jpaOrderStore).saveAll(any());
+
+        // when
+        writeBehindOrderStore.save(new Order((short) 1, (short) 20, 100L));
+        writeBehindOrderStore.save(new Order((short) 2, (short) 25, 100L));
+
+        // then
+        verify(jpaOrderStore, timeout(10000)).saveAll(argThat(orders -> orders.size() == 1
+                && orders.get(0).getCustomerId() == 2));
+        assertEquals(List.of(new Entry(OrderJournal.SAVE, (short) 1, (short) 20, 100L)),
+                writeBehindOrderStore.rejectedWrites());
+    }
+
+    @Test
+    void testStartReplaysJournal() throws IOException {
+        // given
+        try (OrderJournal journal = new OrderJournal(directory.resolve("order.journal"))) {
+            journal.sync(journal.append(List.of(
+                    new Entry(OrderJournal.SAVE, (short) 1, (short) 20, 100L),
+                    new Entry(OrderJournal.SAVE, (short) 2, (short) 25, 100L),
+                    Entry.delete((short) 1),
+                    new Entry(OrderJournal.SAVE, (short) 3, (short) 15, 101L))));
+        }
+        // order 1 and order 3 were flushed before the crash, the delete of order 1 was not
+        doAnswer(invocation -> {
+            Consumer<OrderSummary> consumer = invocation.getArgument(0);
+            consumer.accept(new Order((short) 1, (short) 20, 100L));
+            consumer.accept(new Order((short) 3, (short) 15, 101L));
+            return null;
+        }).when(jpaOrderStore).load(any());
+
+        // when
+        start();
+
+        // then
+        verify(jpaOrderStore, times(1)).deleteAll(List.of((short) 1));
+        verify(jpaOrderStore, times(1)).saveAll(argThat(orders -> orders.size() == 1
+                && orders.get(0).getCustomerId() == 2));
+    }
+
+    @Test
+    void testUnforcedWriteIsTakenBack() throws IOException {
+        // given
+        start();
+        OrderJournal journal = spy((OrderJournal) ReflectionTestUtils.getField(writeBehindOrderStore, "journal"));
+        doThrow(new IOException("disk full")).doCallRealMethod().when(journal).sync(anyLong());
+        ReflectionTestUtils.setField(writeBehindOrderStore, "journal", journal);
+
+        // when
+        assertThrows(UncheckedIOException.class,
+                () -> writeBehindOrderStore.save(new Order((short) 1, (short) 20, 100L)));
+        writeBehindOrderStore.stop();
+        writeBehindOrderStore.start();
+
+        // then
+        assertEquals(0, writeBehindOrderStore.unflushed());
+        verify(jpaOrderStore, never()).saveAll(any());
+    }
+
+    @Test
+    void testRejectedReplayIsSetAside() throws IOException {
+        // given
+        try (OrderJournal journal = new OrderJournal(directory.resolve("order.journal"))) {
+            journal.sync(journal.append(List.of(
+                    new Entry(OrderJournal.SAVE, (short) 1, (short) 20, 100L),
+                    new Entry(OrderJournal.SAVE, (short) 2, (short) 25, 100L))));
+        }
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            if (orders.stream().anyMatch(order -> order.getCustomerId() == 1)) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return null;
+        }).when(jpaOrderStore).saveAll(any());
+
+        // when
+        start();
+
+        // then
+        verify(jpaOrderStore, times(1)).saveAll(argThat(orders -> orders.size() == 1
+                && orders.get(0).getCustomerId() == 2));
+        assertEquals(List.of(new Entry(OrderJournal.SAVE, (short) 1, (short) 20, 100L)),
+                writeBehindOrderStore.rejectedWrites());
+    }
+}
@@ -1,16 +1,15 @@
 package com.demo.donutpriorityqueue.util;
 
 import com.demo.donutpriorityqueue.entity.Order;
+import com.demo.donutpriorityqueue.entity.OrderSummary;
+import com.demo.donutpriorityqueue.queue.OrderQueue;
 import com.demo.donutpriorityqueue.repository.OrderRepository;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -20,14 +19,10 @@ import static org.mockito.Mockito.*;
 public class OrderQueueUtilTest {
     @Mock
     private OrderRepository orderRepository;
+    @Mock
+    private OrderQueue orderQueue;
     @InjectMocks
     private OrderQueueUtil orderQueueUtil;
-    private OrderQueueUtil spyOrderQueueUtil;
-
-    @BeforeEach
-    public void setup() {
-        spyOrderQueueUtil = Mockito.spy(orderQueueUtil);
-    }
 
     @Test
     public void testGetPremiumOrders() {
@@ -45,18 +40,15 @@ public class OrderQueueUtilTest {
         Order order2 = new Order((short) 20, (short) 25);
         Order order3 = new Order((short) 300, (short) 15);
 
-        List<Order> premiumOrders = new ArrayList<>(List.of(order2, order3));
-        List<Order> allOrders = List.of(order1, order2, order3);
-
-        List<Order> expectedQueue = List.of(order2, order3, order1);
-        when(spyOrderQueueUtil.getPremiumOrders()).thenReturn(premiumOrders);
-        when(orderRepository.findAll()).thenReturn(allOrders);
+        List<OrderSummary> expectedQueue = List.of(order2, order3, order1);
+        when(orderQueue.toList()).thenReturn(expectedQueue);
 
         // when
-        List<Order> orderQueue = spyOrderQueueUtil.getOrderQueue();
+        List<OrderSummary> queuedOrders = orderQueueUtil.getOrderQueue();
 
         // then
-        assertEquals(expectedQueue, orderQueue);
+        assertEquals(expectedQueue, queuedOrders);
+        verify(orderRepository, never()).findAll();
     }
 
     @Test
@@ -0,0 +1,33 @@
+package com.demo.donutpriorityqueue.util;
+
+import com.demo.donutpriorityqueue.dto.CreateOrderRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderValidatorTest {
+
+    @Test
+    public void testValidate() {
+        // when/then
+        assertDoesNotThrow(() -> OrderValidator.validate(new CreateOrderRequest((short) 1, (short) 50)));
+        assertThrows(IllegalStateException.class,
+                () -> OrderValidator.validate(new CreateOrderRequest(null, (short) 10)));
+        assertThrows(IllegalStateException.class,
+                () -> OrderValidator.validate(new CreateOrderRequest((short) 0, (short) 10)));
+        assertThrows(IllegalStateException.class,
+                () -> OrderValidator.validate(new CreateOrderRequest((short) 20001, (short) 10)));
+        assertThrows(IllegalStateException.class,
+                () -> OrderValidator.validate(new CreateOrderRequest((short) 1, (short) 51)));
+    }
+
+    @Test
+    public void testValidateQuantityBelowOne() {
+        // when/then
+        assertDoesNotThrow(() -> OrderValidator.validate(new CreateOrderRequest((short) 1, (short) 1)));
+        assertThrows(IllegalStateException.class,
+                () -> OrderValidator.validate(new CreateOrderRequest((short) 1, (short) 0)));
+        assertThrows(IllegalStateException.class,
+                () -> OrderValidator.validate(new CreateOrderRequest((short) 1, (short) -10)));
+    }
+}